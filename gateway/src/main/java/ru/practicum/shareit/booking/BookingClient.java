@@ -1,60 +1,71 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Component
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .baseUrl(serverUrl + API_PREFIX)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(long userId, BookingState state, Integer from,
+                                                              Integer size, String after) {
+        return getPage("", userId, state, from, size, after);
     }
 
-    public ResponseEntity<Object> getBookingsForOwnersItems(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsForOwnersItems(long userId, BookingState state,
+                                                                            Integer from, Integer size, String after) {
+        return getPage("/owner", userId, state, from, size, after);
     }
 
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookings(long userId) {
+        return get("/export", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> respondToBookingRequest(long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> respondToBookingRequest(long userId, Long bookingId,
+                                                                          Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> getPage(String path, long userId, BookingState state, Integer from,
+                                                           Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after == null) {
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("after", after);
+        return get(path + "?state={state}&from={from}&size={size}&after={after}", userId, parameters);
+    }
 }
@@ -3,10 +3,13 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
@@ -24,35 +27,47 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                              Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10")
-                                              Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestParam(name = "state", defaultValue = "all")
+                                                              String stateParam,
+                                                              @PositiveOrZero
+                                                              @RequestParam(name = "from", defaultValue = "0")
+                                                              Integer from,
+                                                              @Positive
+                                                              @RequestParam(name = "size", defaultValue = "10")
+                                                              Integer size,
+                                                              @RequestParam(name = "after", required = false)
+                                                              String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size,
+                after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getBookingsForOwnersItems(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                            @RequestParam(name = "state", defaultValue = "all")
-                                                            String stateParam,
-                                                            @PositiveOrZero @RequestParam(name = "from",
-                                                                    defaultValue = "0") Integer from,
-                                                            @Positive @RequestParam(name = "size",
-                                                                    defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsForOwnersItems(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+            @RequestParam(name = "after", required = false) String after) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, ownerId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookingsForOwnersItems(userId, state, from, size);
+        log.info("Get booking with state {}, ownerId={}, from={}, size={}, after={}", stateParam, userId, from, size,
+                after);
+        return bookingClient.getBookingsForOwnersItems(userId, state, from, size, after);
+    }
+
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookings(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Export bookings, userId={}", userId);
+        return bookingClient.exportBookings(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @RequestBody @Valid BookItemRequestDto requestDto) {
 
         if (requestDto.getStart().isAfter(requestDto.getEnd())) {
             throw new ValidationException("Окончание аренды не может быть раньше её начала");
@@ -67,16 +82,17 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                             @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> respondToBookingRequest(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                          @PathVariable Long bookingId,
-                                                          @RequestParam(value = "approved") Boolean approved) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> respondToBookingRequest(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PathVariable Long bookingId,
+            @RequestParam(value = "approved") Boolean approved) {
         log.info("Approved {}, bookingId={}, userId={}", approved, bookingId, userId);
         return bookingClient.respondToBookingRequest(userId, bookingId, approved);
     }
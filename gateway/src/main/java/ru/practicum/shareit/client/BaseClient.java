@@ -1,118 +1,252 @@
 package ru.practicum.shareit.client;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    // Заголовки, которые относятся к конкретному соединению и не должны проксироваться (RFC 7230, 6.1)
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    protected final WebClient webClient;
+
+    @Nullable
+    private final ResponseCache responseCache;
+
+    // путь ресурсов клиента на сервере, из него и пути запроса складывается ключ кэша
+    private final String apiPrefix;
+
+    public BaseClient(WebClient webClient) {
+        this(webClient, null, "");
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    public BaseClient(WebClient webClient, @Nullable ResponseCache responseCache, String apiPrefix) {
+        this.webClient = webClient;
+        this.responseCache = responseCache;
+        this.apiPrefix = apiPrefix;
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, Long userId,
+                                                         @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * GET через {@link ResponseCache}. Подходит только для запросов без параметров, ответ на которые
+     * определяется путём и пользователем.
+     */
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> cachedGet(String path, @Nullable Long userId) {
+        if (responseCache == null || !responseCache.isEnabled()) {
+            return get(path, userId, null);
+        }
+
+        String resource = apiPrefix + path;
+        CachedResponse cached = responseCache.get(resource, userId);
+        if (cached != null && responseCache.isFresh(cached)) {
+            return Mono.just(cached.toResponseEntity());
+        }
+
+        String eTag = cached != null ? cached.getETag() : null;
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> {
+                    defaultHeaders(headers, userId);
+                    if (eTag != null) {
+                        headers.setIfNoneMatch(eTag);
+                    }
+                })
+                .retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntity(byte[].class)
+                .map(response -> {
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                        return responseCache.revalidated(resource, userId, cached).toResponseEntity();
+                    }
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        return responseCache.store(resource, userId, response).toResponseEntity();
+                    }
+                    return bufferedResponse(response);
+                });
+    }
+
+    /**
+     * Сбрасывает закэшированные ответы на ресурсы (пути от корня API сервера), если изменение прошло успешно.
+     */
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> invalidateOnSuccess(Mono<ResponseEntity<Flux<DataBuffer>>> request,
+                                                                         String... resources) {
+        if (responseCache == null) {
+            return request;
+        }
+        return request.doOnNext(response -> {
+            if (response.getStatusCode().is2xxSuccessful()) {
+                for (String resource : resources) {
+                    responseCache.invalidate(resource);
+                }
+            }
+        });
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, Long userId,
+                                                              @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    /**
+     * POST с телом-потоком: элементы уходят на сервер в NDJSON по мере поступления, не собираясь в памяти.
+     */
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> postStream(String path, long userId, Flux<T> body,
+                                                                    Class<T> elementClass) {
+        return webClient.post()
+                .uri(path)
+                .headers(headers -> {
+                    defaultHeaders(headers, userId);
+                    headers.setContentType(MediaType.APPLICATION_NDJSON);
+                })
+                .body(body, elementClass)
+                .retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                // ошибку чтения или проверки входного потока WebClient заворачивает в ошибку запроса к серверу,
+                // а клиенту нужен исходный ответ 400
+                .onErrorMap(WebClientRequestException.class, exception ->
+                        exception.getCause() instanceof ResponseStatusException ? exception.getCause() : exception)
+                .flatMap(BaseClient::prepareGatewayResponse);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> put(String path, long userId,
+                                                             @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, Long userId,
+                                                               @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
-                                                          @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Flux<DataBuffer>>> makeAndSendRequest(HttpMethod method, String path,
+                                                                          Long userId,
+                                                                          @Nullable Map<String, Object> parameters,
+                                                                          @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> defaultHeaders(headers, userId));
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+        WebClient.RequestHeadersSpec<?> requestWithBody = body != null ? request.bodyValue(body) : request;
+
+        // Тело ответа сервера не разбирается: байты передаются клиенту по мере поступления
+        return requestWithBody.retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .flatMap(BaseClient::prepareGatewayResponse);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
+    private static void defaultHeaders(HttpHeaders headers, Long userId) {
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
-        return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> prepareGatewayResponse(
+            ResponseEntity<Flux<DataBuffer>> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+            return Mono.just(new ResponseEntity<>(response.getBody(), endToEndHeaders(response.getHeaders()),
+                    response.getStatusCode()));
+        }
+
+        // Ответ с ошибкой короткий, поэтому его тело собирается целиком и отдаётся без заголовков сервера
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null) {
+            responseBuilder.contentType(contentType);
         }
 
+        return DataBufferUtils.join(response.getBody())
+                .map(body -> responseBuilder.contentLength(body.readableByteCount()).body(Flux.just(body)))
+                .switchIfEmpty(Mono.fromSupplier(responseBuilder::build));
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> bufferedResponse(ResponseEntity<byte[]> response) {
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null) {
+            responseBuilder.contentType(contentType);
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        byte[] body = response.getBody();
+        if (body == null) {
+            return responseBuilder.build();
         }
+        return responseBuilder.contentLength(body.length)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+    }
 
-        return responseBuilder.build();
+    private static HttpHeaders endToEndHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        serverHeaders.forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
     }
 }
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.client;
+
+import lombok.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+/**
+ * Успешный ответ сервера, сохранённый в {@link ResponseCache}.
+ */
+@Value
+class CachedResponse {
+    HttpStatus status;
+
+    HttpHeaders headers;
+
+    byte[] body;
+
+    // момент последнего подтверждения актуальности ответа сервером, System.nanoTime()
+    long validatedAt;
+
+    String getETag() {
+        return headers.getETag();
+    }
+
+    CachedResponse revalidated(long now) {
+        return new CachedResponse(status, headers, body, now);
+    }
+
+    ResponseEntity<Flux<DataBuffer>> toResponseEntity() {
+        return new ResponseEntity<>(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)), headers, status);
+    }
+}
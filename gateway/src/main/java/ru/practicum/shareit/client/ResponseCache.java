@@ -0,0 +1,105 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш ответов сервера на GET-запросы редко меняющихся ресурсов (вещи, пользователи, запросы).
+ * Ответ сервера зависит от того, кто спрашивает, поэтому ключ включает X-Sharer-User-Id.
+ * Свежая запись отдаётся без обращения к серверу, устаревшая перепроверяется по ETag.
+ * Когда gateway проксирует изменение ресурса, записи этого ресурса удаляются для всех пользователей.
+ */
+@Component
+public class ResponseCache {
+    private static final String NAME = "gatewayResponses";
+
+    private final boolean enabled;
+    private final long revalidateAfterNanos;
+    private final Cache<Key, CachedResponse> cache;
+
+    private final Counter notModified;
+    private final Counter modified;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.revalidateAfterNanos = properties.getRevalidateAfter().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        this.notModified = Counter.builder("shareit.gateway.cache.revalidations")
+                .tag("cache", NAME)
+                .tag("result", "not_modified")
+                .register(meterRegistry);
+        this.modified = Counter.builder("shareit.gateway.cache.revalidations")
+                .tag("cache", NAME)
+                .tag("result", "modified")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Nullable
+    CachedResponse get(String resource, @Nullable Long userId) {
+        return cache.getIfPresent(new Key(resource, userId));
+    }
+
+    boolean isFresh(CachedResponse response) {
+        return System.nanoTime() - response.getValidatedAt() < revalidateAfterNanos;
+    }
+
+    CachedResponse store(String resource, @Nullable Long userId, ResponseEntity<byte[]> response) {
+        HttpHeaders headers = new HttpHeaders();
+        if (response.getHeaders().getContentType() != null) {
+            headers.setContentType(response.getHeaders().getContentType());
+        }
+        if (response.getHeaders().getETag() != null) {
+            headers.setETag(response.getHeaders().getETag());
+        }
+        byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+        headers.setContentLength(body.length);
+
+        CachedResponse cached = new CachedResponse(response.getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers),
+                body, System.nanoTime());
+        // вытесненная запись означает, что ответ сервера изменился с прошлой проверки
+        if (cache.asMap().put(new Key(resource, userId), cached) != null) {
+            modified.increment();
+        }
+        return cached;
+    }
+
+    CachedResponse revalidated(String resource, @Nullable Long userId, CachedResponse cached) {
+        CachedResponse revalidated = cached.revalidated(System.nanoTime());
+        cache.put(new Key(resource, userId), revalidated);
+        notModified.increment();
+        return revalidated;
+    }
+
+    /**
+     * Удаляет ответы на ресурс для всех пользователей. Записей в кэше немного, поэтому обход всего
+     * кэша при изменении дешевле, чем поддержка отдельного индекса по ресурсам.
+     */
+    public void invalidate(String resource) {
+        cache.asMap().keySet().removeIf(key -> key.getResource().equals(resource));
+    }
+
+    @Value
+    private static class Key {
+        String resource;
+
+        Long userId;
+    }
+}
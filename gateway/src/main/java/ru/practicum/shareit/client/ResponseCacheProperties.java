@@ -0,0 +1,25 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов сервера на GET-запросы.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+
+    private long maxSize = 10_000;
+
+    // запись удаляется из кэша не позже чем через ttl после последней проверки на сервере
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // в течение этого времени ответ отдаётся из кэша без обращения к серверу, затем проверяется по ETag
+    private Duration revalidateAfter = Duration.ofSeconds(5);
+}
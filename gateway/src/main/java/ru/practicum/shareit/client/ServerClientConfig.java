@@ -0,0 +1,40 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Один неблокирующий пул соединений на все клиенты {@link BaseClient}. Коннектор подхватывается
+ * автоконфигурацией WebClient, поэтому все построенные из WebClient.Builder клиенты используют этот пул.
+ */
+@Configuration
+@EnableConfigurationProperties({ServerClientProperties.class, ResponseCacheProperties.class})
+public class ServerClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(ServerClientProperties properties) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector serverClientHttpConnector(ConnectionProvider serverConnectionProvider,
+                                                         ServerClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout())
+                .keepAlive(true);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
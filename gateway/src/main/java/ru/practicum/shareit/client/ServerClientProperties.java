@@ -0,0 +1,27 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки общего пула HTTP-соединений gateway с сервером.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class ServerClientProperties {
+    // лимит действует на каждый адрес сервера отдельно, а все запросы gateway идут на один сервер
+    private int maxConnections = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    // сколько ждать свободного соединения из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    // соединения, простаивающие дольше, закрываются фоновой задачей пула
+    private Duration idleTimeout = Duration.ofSeconds(30);
+}
@@ -1,44 +1,69 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
 
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                responseCache,
+                API_PREFIX
         );
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(long userId, ItemDto itemDto) {
+        if (itemDto.getRequestId() == null) {
+            return post("", userId, itemDto);
+        }
+        // новая вещь попадает в ответы на запрос
+        return invalidateOnSuccess(post("", userId, itemDto), "/requests/" + itemDto.getRequestId());
     }
 
-    public ResponseEntity<Object> update(Long userId, Long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItems(long userId, Flux<ItemDto> items) {
+        // запросы, в ответ на которые пришли вещи, известны только после того, как поток прочитан
+        Set<Long> requestIds = ConcurrentHashMap.newKeySet();
+        Flux<ItemDto> trackedItems = items.doOnNext(itemDto -> {
+            if (itemDto.getRequestId() != null) {
+                requestIds.add(itemDto.getRequestId());
+            }
+        });
+        return postStream("/batch", userId, trackedItems, ItemDto.class)
+                .flatMap(response -> invalidateOnSuccess(Mono.just(response), requestIds.stream()
+                        .map(requestId -> "/requests/" + requestId)
+                        .toArray(String[]::new)));
     }
 
-    public ResponseEntity<Object> getByUserIdAndItemId(long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(Long userId, Long itemId, ItemDto itemDto) {
+        return invalidateOnSuccess(patch("/" + itemId, userId, itemDto), API_PREFIX + "/" + itemId);
     }
 
-    public ResponseEntity<Object> getItemsUser(Long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getByUserIdAndItemId(long userId, Long itemId) {
+        return cachedGet("/" + itemId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemsUser(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -46,7 +71,11 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemsOnRequest(String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportItems(long userId) {
+        return get("/export", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemsOnRequest(String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -55,7 +84,15 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", null, parameters);
     }
 
-    public ResponseEntity<Object> addComment(Long userId, Long itemId, CommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(Long userId, Long itemId, CommentDto commentDto) {
+        return invalidateOnSuccess(post("/" + itemId + "/comment", userId, commentDto), API_PREFIX + "/" + itemId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from.toString(),
+                "to", to.toString()
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 }
@@ -2,17 +2,24 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
+import javax.validation.ValidationException;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -24,51 +31,77 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @Valid @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @Valid @RequestBody ItemDto itemDto) {
         log.info("Creating Item {}, userId={}", itemDto, userId);
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                              @Valid @RequestBody Flux<ItemDto> items) {
+        log.info("Creating items in batch, userId={}", userId);
+        return itemClient.createItems(userId, items);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PathVariable Long itemId,
-                                         @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @PathVariable Long itemId,
+                                                         @RequestBody ItemDto itemDto) {
         log.info("Updating ItemId={}, userId={}, itemDto {}", itemId, userId, itemDto);
         return itemClient.update(userId, itemId, itemDto);
     }
 
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Export items, userId={}", userId);
+        return itemClient.exportItems(userId);
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getByUserIdAndItemId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                       @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getByUserIdAndItemId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                       @PathVariable Long itemId) {
         log.info("Get item {}, userId={}", itemId, userId);
         return itemClient.getByUserIdAndItemId(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItemsUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                               Integer from,
-                                               @Positive @RequestParam(name = "size", defaultValue = "10")
-                                               Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemsUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @PositiveOrZero
+                                                               @RequestParam(name = "from", defaultValue = "0")
+                                                               Integer from,
+                                                               @Positive
+                                                               @RequestParam(name = "size", defaultValue = "10")
+                                                               Integer size) {
         log.info("Get items with userId={}, from={}, size={}", userId, from, size);
         return itemClient.getItemsUser(userId, from, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> getItemsOnRequest(@NotNull @RequestParam(value = "text") String text,
-                                                    @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                    Integer from,
-                                                    @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                    Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemsOnRequest(
+            @NotNull @RequestParam(value = "text") String text,
+            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Get items with text {}, from={}, size={}", text, from, size);
         return itemClient.getItemsOnRequest(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @PathVariable Long itemId,
-                                             @Valid @RequestBody CommentDto commentDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @PathVariable Long itemId,
+                                                             @Valid @RequestBody CommentDto commentDto) {
         return itemClient.addComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAvailability(
+                      @PathVariable Long itemId,
+                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        log.info("Get availability of item {}, from={}, to={}", itemId, from, to);
+        return itemClient.getAvailability(itemId, from, to);
+    }
 }
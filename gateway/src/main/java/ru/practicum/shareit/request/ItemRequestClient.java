@@ -1,12 +1,14 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
@@ -17,24 +19,30 @@ public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                             ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                responseCache,
+                API_PREFIX
         );
     }
 
-    public ResponseEntity<Object> createItemRequest(long userId, ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItemRequest(long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getRequestOwner(Long userId) {
-        return get("", userId);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestOwner(Long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> get(Long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> get(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -42,7 +50,7 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long itemRequestId) {
-        return get("/" + itemRequestId, userId);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(Long userId, Long itemRequestId) {
+        return cachedGet("/" + itemRequestId, userId);
     }
 }
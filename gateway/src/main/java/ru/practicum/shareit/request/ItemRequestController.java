@@ -2,10 +2,13 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -22,29 +25,37 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @Valid @RequestBody ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @Valid @RequestBody ItemRequestDto itemRequestDto) {
         log.info("Creating ItemRequest {}, userId={}", itemRequestDto, userId);
         return itemRequestClient.createItemRequest(userId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequestOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get itemRequests with ownerId={}", userId);
-        return itemRequestClient.getRequestOwner(userId);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @PositiveOrZero
+                                                                  @RequestParam(name = "from", defaultValue = "0")
+                                                                  Integer from,
+                                                                  @Positive
+                                                                  @RequestParam(name = "size", defaultValue = "10")
+                                                                  Integer size) {
+        log.info("Get itemRequests with ownerId={}, from={}, size={}", userId, from, size);
+        return itemRequestClient.getRequestOwner(userId, from, size);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                      @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> get(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                      Integer from,
+                                                      @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                      Integer size) {
         log.info("Get itemRequests with requesterId={}, from={}, size={}", userId, from, size);
         return itemRequestClient.get(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                          @PathVariable Long requestId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @PathVariable Long requestId) {
         log.info("Get itemRequestId={}, userId={}", requestId, userId);
         return itemRequestClient.getById(userId, requestId);
     }
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.user.dto.UserDto;
 
 @Component
@@ -14,32 +16,34 @@ public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                      ResponseCache responseCache) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                responseCache,
+                API_PREFIX
         );
     }
 
-    public ResponseEntity<Object> createUser(UserDto userDto) {
-        return post("", userDto);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(UserDto userDto) {
+        return invalidateOnSuccess(post("", userDto), API_PREFIX);
     }
 
-    public ResponseEntity<Object> update(Long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(Long userId, UserDto userDto) {
+        return invalidateOnSuccess(patch("/" + userId, userDto), API_PREFIX, API_PREFIX + "/" + userId);
     }
 
-    public ResponseEntity<Object> getById(long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(long userId) {
+        return cachedGet("/" + userId, null);
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsers() {
+        return cachedGet("", null);
     }
 
-    public ResponseEntity<Object> deleteById(Long userId) {
-        return delete("/" + userId);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteById(Long userId) {
+        return invalidateOnSuccess(delete("/" + userId), API_PREFIX, API_PREFIX + "/" + userId);
     }
 }
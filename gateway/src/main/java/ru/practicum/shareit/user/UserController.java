@@ -2,10 +2,13 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
@@ -20,32 +23,32 @@ public class UserController {
     private final UserClient userClient;
 
     @PostMapping
-    public ResponseEntity<Object> create(@Valid @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@Valid @RequestBody UserDto userDto) {
         log.info("Creating User {}", userDto);
         return userClient.createUser(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@PathVariable Long userId,
-                                         @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@PathVariable Long userId,
+                                                         @RequestBody UserDto userDto) {
         log.info("Updating userId={}, userDto {}", userId, userDto);
         return userClient.update(userId, userDto);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getById(@PathVariable Long userId) {
         log.info("Get userId={}", userId);
         return userClient.getById(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsers() {
         log.info("Get users");
         return userClient.getUsers();
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteById(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteById(@PathVariable Long userId) {
         log.info("Delete userId={}", userId);
         return userClient.deleteById(userId);
     }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ShareItGatewayTests {
+
+	@Autowired
+	private ReactiveWebServerApplicationContext context;
+
+	@Test
+	void shouldStartOnNetty() {
+		assertThat(context.getWebServer(), instanceOf(NettyWebServer.class));
+	}
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+
+/**
+ * Гейтвей отдаёт тело ответа сервера байт в байт. Вместо сервера поднимается заглушка на случайном порту:
+ * лишние пробелы и кириллица в её ответах выдали бы повторную сериализацию или перекодировку.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ProxyResponseTest {
+    private static final String ITEM = "{\"id\": 1,  \"name\": \"Дрель\", \"available\": true}";
+    private static final String NOT_FOUND = "{\"error\": \"Предмет с id 2 не найден\"}";
+    private static final String EXPORT_FIRST = "{\"id\": 1, \"name\": \"Дрель\"}\n";
+    private static final String EXPORT_SECOND = "{\"id\": 2, \"name\": \"Отвёртка\"}\n";
+
+    private static final DisposableServer SERVER = HttpServer.create()
+            .port(0)
+            .route(routes -> routes
+                    .get("/items/1", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendByteArray(Mono.just(bytes(ITEM))))
+                    .get("/items/2", (request, response) -> response
+                            .status(HttpStatus.NOT_FOUND.value())
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendByteArray(Mono.just(bytes(NOT_FOUND))))
+                    // выгрузка уходит порциями, без Content-Length
+                    .get("/items/export", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                            .sendByteArray(Flux.just(bytes(EXPORT_FIRST), bytes(EXPORT_SECOND))))
+                    // заглушка, как и сервер, отвечает после того, как прочитала поток, и возвращает его обратно
+                    .post("/items/batch", (request, response) -> response
+                            .header(HttpHeaders.CONTENT_TYPE, request.requestHeaders().get(HttpHeaders.CONTENT_TYPE))
+                            .send(request.receive().aggregate().retain())))
+            .bindNow();
+
+    private final WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + SERVER.port());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        SERVER.disposeNow();
+    }
+
+    @Test
+    void shouldPassResponseBytesThrough() {
+        webTestClient.get()
+                .uri("/items/1")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().contentLength(bytes(ITEM).length)
+                .expectBody(byte[].class).isEqualTo(bytes(ITEM));
+    }
+
+    @Test
+    void shouldPassErrorBytesThrough() {
+        webTestClient.get()
+                .uri("/items/2")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().contentLength(bytes(NOT_FOUND).length)
+                .expectBody(byte[].class).isEqualTo(bytes(NOT_FOUND));
+    }
+
+    @Test
+    void shouldStreamNdjsonExport() {
+        webTestClient.get()
+                .uri("/items/export")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(byte[].class).isEqualTo(bytes(EXPORT_FIRST + EXPORT_SECOND));
+    }
+
+    @Test
+    void shouldStreamNdjsonBatchToServer() {
+        String items = "{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}\n"
+                + "{\"name\":\"Отвёртка\",\"description\":\"Крестовая\",\"available\":false}\n";
+
+        byte[] body = webTestClient.post()
+                .uri("/items/batch")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(bytes(items))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        String echoed = new String(body, StandardCharsets.UTF_8);
+        assertThat(echoed, containsString("\"name\":\"Дрель\""));
+        assertThat(echoed, containsString("\"name\":\"Отвёртка\""));
+    }
+
+    @Test
+    void shouldRejectInvalidBatchItem() {
+        webTestClient.post()
+                .uri("/items/batch")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(bytes("{\"name\":\"Дрель\",\"available\":true}\n"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
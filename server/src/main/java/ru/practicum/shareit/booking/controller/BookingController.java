@@ -1,12 +1,20 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.export.NdjsonWriter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * TODO Sprint add-bookings.
@@ -15,7 +23,10 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingForAnswerDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -30,31 +41,61 @@ public class BookingController {
         return bookingService.respondToBookingRequest(userId, bookingId, response);
     }
 
+    @GetMapping("/export")
+    public void exportBookingsByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                     HttpServletResponse response) throws IOException {
+        try (NdjsonWriter<BookingForAnswerDto> writer =
+                     new NdjsonWriter<>(objectMapper, response, BookingForAnswerDto.class)) {
+            bookingService.exportBookingsByUser(userId, writer);
+        }
+    }
+
     @GetMapping("/{bookingId}")
     public BookingForAnswerDto getByUserIdAndBookingId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                       @PathVariable Long bookingId) {
+                                                       @PathVariable Long bookingId, WebRequest request) {
+        Optional<String> eTag = bookingService.getETag(userId, bookingId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         return bookingService.getByUserIdAndBookingId(userId, bookingId);
     }
 
     @GetMapping
-    public List<BookingForAnswerDto> getBookingsByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                       @RequestParam(required = false, defaultValue = "ALL")
-                                                       String state,
-                                                       @RequestParam(required = false, defaultValue = "0")
-                                                       Integer from,
-                                                       @RequestParam(required = false, defaultValue = "10")
-                                                       Integer size) {
-        return bookingService.getBookingsByUser(userId, state, from, size);
+    public ResponseEntity<List<BookingForAnswerDto>> getBookingsByUser(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(required = false, defaultValue = "ALL") String state,
+            @RequestParam(required = false, defaultValue = "0") Integer from,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after) {
+        List<BookingForAnswerDto> bookings = after == null
+                ? bookingService.getBookingsByUser(userId, state, from, size)
+                : bookingService.getBookingsByUserAfter(userId, state, after, size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingForAnswerDto> getBookingsForOwnersItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                               @RequestParam(required = false, defaultValue = "ALL")
-                                                               String state,
-                                                               @RequestParam(required = false, defaultValue = "0")
-                                                               Integer from,
-                                                               @RequestParam(required = false, defaultValue = "10")
-                                                               Integer size) {
-        return bookingService.getBookingsForOwnersItems(userId, state, from, size);
+    public ResponseEntity<List<BookingForAnswerDto>> getBookingsForOwnersItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(required = false, defaultValue = "ALL") String state,
+            @RequestParam(required = false, defaultValue = "0") Integer from,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false) String after) {
+        List<BookingForAnswerDto> bookings = after == null
+                ? bookingService.getBookingsForOwnersItems(userId, state, from, size)
+                : bookingService.getBookingsForOwnersItemsAfter(userId, state, after, size);
+        return withNextCursor(bookings, size);
+    }
+
+    /**
+     * Если страница заполнена целиком, в заголовке X-Next-Cursor возвращается курсор для запроса следующей
+     * страницы через параметр after.
+     */
+    private static ResponseEntity<List<BookingForAnswerDto>> withNextCursor(List<BookingForAnswerDto> bookings,
+                                                                            Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
     }
 }
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDriftDto;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+
+/**
+ * /actuator/bookingsummary: пересчитывает сводки бронирований всех предметов и сообщает о расхождениях
+ * с сохранёнными. Проходит по всей таблице предметов, поэтому вызывается вручную или редким заданием.
+ */
+@Component
+@Endpoint(id = "bookingsummary")
+@RequiredArgsConstructor
+public class ItemBookingSummaryEndpoint {
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    @ReadOperation
+    public ItemBookingSummaryDriftDto check() {
+        return itemBookingSummaryService.checkConsistency();
+    }
+}
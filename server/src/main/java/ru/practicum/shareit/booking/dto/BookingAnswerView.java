@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * Колонки бронирования, его предмета и арендатора, из которых собирается {@link BookingForAnswerDto}.
+ * Читается одним запросом без загрузки сущностей.
+ */
+public interface BookingAnswerView {
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    Status getStatus();
+
+    Long getItemId();
+
+    String getItemName();
+
+    String getItemDescription();
+
+    Boolean getItemAvailable();
+
+    Long getItemRequestId();
+
+    Long getBookerId();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
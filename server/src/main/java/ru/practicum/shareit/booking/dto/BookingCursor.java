@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция последнего бронирования на странице выдачи. Клиент получает курсор в виде непрозрачной строки
+ * и передаёт его обратно, чтобы получить следующую страницу без OFFSET.
+ */
+@Value
+public class BookingCursor {
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime start;
+
+    Long id;
+
+    public static BookingCursor of(BookingForAnswerDto booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((start + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
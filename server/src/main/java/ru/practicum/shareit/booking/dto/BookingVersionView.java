@@ -0,0 +1,18 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Версии бронирования и сущностей, которые попадают в ответ на него.
+ */
+public interface BookingVersionView {
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    Long getBookerId();
+}
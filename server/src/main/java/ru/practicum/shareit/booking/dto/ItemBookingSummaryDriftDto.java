@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemBookingSummaryDriftDto {
+    Long checkedItems;
+
+    // сводки, которые ждут планового сдвига; при чтении они пересчитываются, поэтому расхождением не считаются
+    Long pendingRollForward;
+
+    Long driftedItems;
+
+    // первые из разошедшихся предметов
+    List<Long> driftedItemIds;
+}
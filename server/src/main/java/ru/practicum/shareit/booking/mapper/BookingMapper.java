@@ -4,11 +4,14 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingAnswerView;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -54,6 +57,27 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingForAnswerDto toBookingForAnswerDto(@NotNull BookingAnswerView booking) {
+        return BookingForAnswerDto.builder()
+                .id(booking.getId())
+                .itemDto(ItemDto.builder()
+                        .id(booking.getItemId())
+                        .name(booking.getItemName())
+                        .description(booking.getItemDescription())
+                        .available(booking.getItemAvailable())
+                        .requestId(booking.getItemRequestId())
+                        .build())
+                .bookerDto(UserDto.builder()
+                        .id(booking.getBookerId())
+                        .name(booking.getBookerName())
+                        .email(booking.getBookerEmail())
+                        .build())
+                .start(booking.getStartDate())
+                .end(booking.getEndDate())
+                .status(booking.getStatus())
+                .build();
+    }
+
     public static List<BookingForAnswerDto> toBookingForAnswerDtoList(List<Booking> bookings) {
         List<BookingForAnswerDto> bookingForAnswerDtoList = new ArrayList<>();
         for (Booking booking : bookings) {
@@ -61,4 +85,12 @@ public class BookingMapper {
         }
         return bookingForAnswerDtoList;
     }
+
+    public static List<BookingForAnswerDto> toBookingForAnswerDtoListFromViews(List<BookingAnswerView> bookings) {
+        List<BookingForAnswerDto> bookingForAnswerDtoList = new ArrayList<>();
+        for (BookingAnswerView booking : bookings) {
+            bookingForAnswerDtoList.add(toBookingForAnswerDto(booking));
+        }
+        return bookingForAnswerDtoList;
+    }
 }
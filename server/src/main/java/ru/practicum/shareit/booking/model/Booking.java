@@ -15,14 +15,21 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.WITH_ITEM_AND_BOOKER, attributeNodes = {
+        @NamedAttributeNode("item"),
+        @NamedAttributeNode("booker")})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Booking {
+    // план загрузки для выдачи списков: предмет и арендатор приходят в том же запросе, что и бронирование
+    public static final String WITH_ITEM_AND_BOOKER = "Booking.withItemAndBooker";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_id_seq")
+    @SequenceGenerator(name = "bookings_id_seq", sequenceName = "bookings_id_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -39,7 +46,22 @@ public class Booking {
     @JoinColumn(name = "booker_id")
     User booker;
 
+    // копия item.owner.id для выборок владельца; владелец предмета сервером не меняется. В equals не входит:
+    // поле выводится из item, который там уже есть, а заполняется только при сохранении
+    @Column(name = "owner_id")
+    @EqualsAndHashCode.Exclude
+    Long ownerId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     Status status;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
+
+    @PrePersist
+    void copyItemOwner() {
+        ownerId = item.getOwner().getId();
+    }
 }
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Последнее и следующее бронирования предмета для его карточки. Сводка пересчитывается при создании
+ * бронирования и ответе на него, а когда следующее бронирование начинается — плановым сдвигом.
+ */
+@Entity
+@Table(name = "item_booking_summary")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    Long itemId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_booking_id")
+    @ToString.Exclude
+    Booking lastBooking;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "next_booking_id")
+    @ToString.Exclude
+    Booking nextBooking;
+
+    // начало следующего бронирования; с этого момента сводка устарела
+    @Column(name = "rolls_at")
+    LocalDateTime rollsAt;
+
+    public boolean isStaleAt(LocalDateTime timeNow) {
+        return rollsAt != null && !rollsAt.isAfter(timeNow);
+    }
+}
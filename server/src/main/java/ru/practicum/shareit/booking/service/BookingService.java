@@ -4,6 +4,8 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingForAnswerDto create(Long userId, BookingDto bookingDto);
@@ -15,4 +17,12 @@ public interface BookingService {
     List<BookingForAnswerDto> getBookingsByUser(Long userId, String state, Integer from, Integer size);
 
     List<BookingForAnswerDto> getBookingsForOwnersItems(Long userId, String state, Integer from, Integer size);
+
+    List<BookingForAnswerDto> getBookingsByUserAfter(Long userId, String state, String after, Integer size);
+
+    List<BookingForAnswerDto> getBookingsForOwnersItemsAfter(Long userId, String state, String after, Integer size);
+
+    void exportBookingsByUser(Long userId, Consumer<BookingForAnswerDto> consumer);
+
+    Optional<String> getETag(Long userId, Long bookingId);
 }
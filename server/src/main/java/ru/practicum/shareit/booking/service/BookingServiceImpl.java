@@ -1,27 +1,37 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingAnswerView;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.config.EntityCacheVersions;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.time.CoarseClock;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.KnownUserIds;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -29,7 +39,11 @@ public class BookingServiceImpl implements BookingService {
 
     private final BookingStorage bookingStorage;
     private final UserStorage userStorage;
+    private final KnownUserIds knownUserIds;
     private final ItemStorage itemStorage;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final CoarseClock coarseClock;
+    private final EntityCacheVersions entityCacheVersions;
 
     @Transactional
     @Override
@@ -49,9 +63,13 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("Предмет с id " + item.getId() + " в данный момент не доступен для аренды");
         }
 
+        checkNoApprovedOverlap(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+
         Booking booking = BookingMapper.toBooking(bookingDto, item, user, Status.WAITING);
+        booking = bookingStorage.save(booking);
+        itemBookingSummaryService.refresh(item.getId());
 
-        return BookingMapper.toBookingForAnswerDto(bookingStorage.save(booking));
+        return BookingMapper.toBookingForAnswerDto(booking);
     }
 
     @Transactional
@@ -59,6 +77,9 @@ public class BookingServiceImpl implements BookingService {
     public BookingForAnswerDto respondToBookingRequest(Long userId, Long bookingId, Boolean response) {
         checkUser(userId);
 
+        // предмет блокируется до чтения бронирования: так статус ниже проверяется уже после ответов,
+        // которые успели закоммитить другие запросы, а сводка предмета пересчитывается в том же порядке
+        itemStorage.findByBookingIdForUpdate(bookingId);
         Booking booking = bookingStorage.findById(bookingId).orElseThrow(() ->
                 new NotFoundException("Бронирование с id " + bookingId + " не найдено"));
 
@@ -67,19 +88,28 @@ public class BookingServiceImpl implements BookingService {
                     + booking.getItem().getId());
         }
 
-        if (response) {
-            if (booking.getStatus().equals(Status.APPROVED)) {
-                throw new ValidationException("У предмета с id " + booking.getItem().getId()
-                        + " уже установлен статус возможности бронирования");
-            }
+        if (response && booking.getStatus().equals(Status.APPROVED)) {
+            throw new ValidationException("У предмета с id " + booking.getItem().getId()
+                    + " уже установлен статус возможности бронирования");
+        }
 
+        if (response) {
+            checkNoApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd());
             booking.setStatus(Status.APPROVED);
         } else {
             booking.setStatus(Status.REJECTED);
         }
-        return BookingMapper.toBookingForAnswerDto(bookingStorage.save(booking));
+        try {
+            booking = bookingStorage.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw new ValidationException("Предмет с id " + booking.getItem().getId()
+                    + " уже забронирован на период с " + booking.getStart() + " по " + booking.getEnd());
+        }
+        itemBookingSummaryService.refresh(booking.getItem().getId());
+        return BookingMapper.toBookingForAnswerDto(booking);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public BookingForAnswerDto getByUserIdAndBookingId(Long userId, Long bookingId) {
         checkUser(userId);
@@ -94,6 +124,7 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingForAnswerDto(booking);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<BookingForAnswerDto> getBookingsByUser(Long userId, String state, Integer from, Integer size) {
         checkUser(userId);
@@ -103,11 +134,11 @@ public class BookingServiceImpl implements BookingService {
         int page = from / size;
 
         Pageable sortedAndPageable =
-                PageRequest.of(page, size, Sort.by("start").descending());
+                PageRequest.of(page, size, Sort.by("start", "id").descending());
         Pageable sortedAndPageableByCurrent =
-                PageRequest.of(page, size, Sort.by("start"));
+                PageRequest.of(page, size, Sort.by("start", "id"));
 
-        LocalDateTime timeNow = LocalDateTime.now();
+        LocalDateTime timeNow = coarseClock.now();
 
         switch (state) {
             case "ALL":
@@ -135,10 +166,11 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingForAnswerDtoList(bookings);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<BookingForAnswerDto> getBookingsForOwnersItems(Long userId, String state, Integer from, Integer size) {
         checkUser(userId);
-        if (itemStorage.findByOwnerId(userId).isEmpty()) {
+        if (!itemStorage.existsByOwnerId(userId)) {
             throw new NotFoundException("У пользователя с id " + userId + " нет предметов для шеринга");
         }
         List<Booking> bookings = new ArrayList<>();
@@ -146,9 +178,9 @@ public class BookingServiceImpl implements BookingService {
         int page = from / size;
 
         Pageable sortedAndPageable =
-                PageRequest.of(page, size, Sort.by("start").descending());
+                PageRequest.of(page, size, Sort.by("start", "id").descending());
 
-        LocalDateTime timeNow = LocalDateTime.now();
+        LocalDateTime timeNow = coarseClock.now();
 
         switch (state) {
             case "ALL":
@@ -176,8 +208,91 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingForAnswerDtoList(bookings);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingForAnswerDto> getBookingsByUserAfter(Long userId, String state, String after, Integer size) {
+        checkUser(userId);
+
+        BookingCursor cursor = BookingCursor.decode(after);
+        BookingStateWindow window = BookingStateWindow.of(state, coarseClock.now()).orElse(null);
+        if (window == null) {
+            return new ArrayList<>();
+        }
+        Pageable limit = PageRequest.of(0, size);
+
+        List<BookingAnswerView> bookings;
+        if (state.equals("CURRENT")) {
+            bookings = bookingStorage.findByBookerIdAfterCursor(userId, window.getStatuses(),
+                    window.getStartAfter(), window.getStartUntil(), window.getEndAfter(), window.getEndUntil(),
+                    cursor.getStart(), cursor.getId(), limit);
+        } else {
+            bookings = bookingStorage.findByBookerIdBeforeCursor(userId, window.getStatuses(),
+                    window.getStartAfter(), window.getStartUntil(), window.getEndAfter(), window.getEndUntil(),
+                    cursor.getStart(), cursor.getId(), limit);
+        }
+        return BookingMapper.toBookingForAnswerDtoListFromViews(bookings);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookingForAnswerDto> getBookingsForOwnersItemsAfter(Long userId, String state, String after,
+                                                                   Integer size) {
+        checkUser(userId);
+        if (!itemStorage.existsByOwnerId(userId)) {
+            throw new NotFoundException("У пользователя с id " + userId + " нет предметов для шеринга");
+        }
+
+        BookingCursor cursor = BookingCursor.decode(after);
+        BookingStateWindow window = BookingStateWindow.of(state, coarseClock.now()).orElse(null);
+        if (window == null) {
+            return new ArrayList<>();
+        }
+
+        List<BookingAnswerView> bookings = bookingStorage.getBookingsForOwnersItemsBeforeCursor(userId,
+                window.getStatuses(), window.getStartAfter(), window.getStartUntil(), window.getEndAfter(),
+                window.getEndUntil(), cursor.getStart(), cursor.getId(), PageRequest.of(0, size));
+        return BookingMapper.toBookingForAnswerDtoListFromViews(bookings);
+    }
+
+    /**
+     * Передаёт все бронирования пользователя в consumer по одному, не собирая их в список.
+     * Транзакция держится открытой, пока выгрузка не записана.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportBookingsByUser(Long userId, Consumer<BookingForAnswerDto> consumer) {
+        checkUser(userId);
+        try (Stream<BookingAnswerView> bookings = bookingStorage.streamByBookerId(userId)) {
+            bookings.map(BookingMapper::toBookingForAnswerDto).forEach(consumer);
+        }
+    }
+
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingStorage.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId, Status.APPROVED, end, start)) {
+            throw new ValidationException("Предмет с id " + itemId + " уже забронирован на период с " + start
+                    + " по " + end);
+        }
+    }
+
+    /**
+     * ETag ответа {@link #getByUserIdAndBookingId}. Бронирование доступно только арендатору и владельцу вещи,
+     * для остальных ETag не вычисляется и запрос обрабатывается как обычно.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getETag(Long userId, Long bookingId) {
+        return bookingStorage.findVersionsById(bookingId)
+                .filter(booking -> userId.equals(booking.getOwnerId()) || userId.equals(booking.getBookerId()))
+                .map(booking -> {
+                    entityCacheVersions.evictIfStale(Item.class, booking.getItemId(), booking.getItemVersion());
+                    entityCacheVersions.evictIfStale(User.class, booking.getBookerId(), booking.getBookerVersion());
+                    return ETags.of("booking", bookingId, booking.getVersion(), booking.getItemVersion(),
+                            booking.getBookerVersion());
+                });
+    }
+
     public void checkUser(Long userId) {
-        if (!userStorage.existsById(userId)) {
+        if (!knownUserIds.exists(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
     }
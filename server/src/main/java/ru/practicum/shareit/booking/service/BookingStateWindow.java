@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.Status;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Условия выборки бронирований для параметра state, выраженные одним набором границ. Благодаря этому
+ * постраничная выборка по курсору обходится одним запросом на все состояния.
+ */
+@Getter
+@AllArgsConstructor
+class BookingStateWindow {
+    static final LocalDateTime MIN = LocalDateTime.of(1900, 1, 1, 0, 0);
+    static final LocalDateTime MAX = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final Set<Status> statuses;
+
+    // start > startAfter and start <= startUntil
+    private final LocalDateTime startAfter;
+    private final LocalDateTime startUntil;
+
+    // end > endAfter and end <= endUntil
+    private final LocalDateTime endAfter;
+    private final LocalDateTime endUntil;
+
+    static Optional<BookingStateWindow> of(String state, LocalDateTime timeNow) {
+        Set<Status> allStatuses = EnumSet.allOf(Status.class);
+        switch (state) {
+            case "ALL":
+                return Optional.of(new BookingStateWindow(allStatuses, MIN, MAX, MIN, MAX));
+            case "CURRENT":
+                return Optional.of(new BookingStateWindow(allStatuses, MIN, timeNow, timeNow, MAX));
+            case "PAST":
+                return Optional.of(new BookingStateWindow(allStatuses, MIN, MAX, MIN, timeNow));
+            case "FUTURE":
+                return Optional.of(new BookingStateWindow(allStatuses, timeNow, MAX, MIN, MAX));
+            case "WAITING":
+                return Optional.of(new BookingStateWindow(EnumSet.of(Status.WAITING), MIN, MAX, MIN, MAX));
+            case "REJECTED":
+                return Optional.of(new BookingStateWindow(EnumSet.of(Status.REJECTED), MIN, MAX, MIN, MAX));
+            default:
+                return Optional.empty();
+        }
+    }
+}
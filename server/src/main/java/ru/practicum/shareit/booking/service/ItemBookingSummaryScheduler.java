@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сдвигает сводки бронирований предметов, у которых началось следующее бронирование: оно становится
+ * последним, а следующим — ближайшее после него.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryScheduler {
+    private static final int BATCH_SIZE = 100;
+
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    @Scheduled(fixedDelayString = "${shareit.booking.summary.roll-forward-interval:PT1M}")
+    public void rollForward() {
+        int rolled = 0;
+        int batch;
+        do {
+            batch = itemBookingSummaryService.rollForward(BATCH_SIZE);
+            rolled += batch;
+        } while (batch == BATCH_SIZE);
+        if (rolled > 0) {
+            log.debug("Сдвинуты сводки бронирований {} предметов", rolled);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDriftDto;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+public interface ItemBookingSummaryService {
+    void refresh(Long itemId);
+
+    ItemBookingSummary getSummary(Long itemId);
+
+    int rollForward(int limit);
+
+    ItemBookingSummaryDriftDto checkConsistency();
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDriftDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.ItemBookingSummaryStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBookingSummaryServiceImpl implements ItemBookingSummaryService {
+    private static final int CHECK_BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ITEMS = 100;
+
+    private final ItemBookingSummaryStorage summaryStorage;
+    private final BookingStorage bookingStorage;
+    private final ItemStorage itemStorage;
+    private final Clock clock;
+
+    /**
+     * Пересчитывает сводку предмета в текущей транзакции. Строка предмета блокируется, поэтому параллельные
+     * изменения бронирований того же предмета не перезапишут сводку устаревшим результатом.
+     */
+    @Transactional
+    @Override
+    public void refresh(Long itemId) {
+        refresh(itemId, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Сводка для карточки предмета. Если следующее бронирование уже началось, а плановый сдвиг до предмета
+     * ещё не дошёл, сводка считается заново по бронированиям. Предмет без сводки не бронировали.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public ItemBookingSummary getSummary(Long itemId) {
+        LocalDateTime timeNow = LocalDateTime.now(clock);
+        return summaryStorage.findWithBookingsByItemId(itemId)
+                .map(summary -> summary.isStaleAt(timeNow) ? compute(List.of(itemId), timeNow).get(itemId) : summary)
+                .orElseGet(() -> empty(itemId));
+    }
+
+    /**
+     * Сдвигает не больше limit сводок, у которых началось следующее бронирование.
+     *
+     * @return сколько сводок пересчитано
+     */
+    @Transactional
+    @Override
+    public int rollForward(int limit) {
+        LocalDateTime timeNow = LocalDateTime.now(clock);
+        List<Long> itemIds = summaryStorage.findItemIdsToRollForward(timeNow, PageRequest.of(0, limit));
+        for (Long itemId : itemIds) {
+            refresh(itemId, timeNow);
+        }
+        return itemIds.size();
+    }
+
+    /**
+     * Сравнивает сохранённые сводки всех предметов с посчитанными заново по бронированиям. Предметы читаются
+     * порциями, каждая в своей транзакции.
+     */
+    @Override
+    public ItemBookingSummaryDriftDto checkConsistency() {
+        LocalDateTime timeNow = LocalDateTime.now(clock);
+        long checked = 0;
+        long pending = 0;
+        long drifted = 0;
+        List<Long> driftedItemIds = new ArrayList<>();
+
+        long lastId = 0;
+        List<Long> itemIds;
+        do {
+            itemIds = itemStorage.findIdsAfter(lastId, PageRequest.of(0, CHECK_BATCH_SIZE));
+            if (itemIds.isEmpty()) {
+                break;
+            }
+            Map<Long, ItemBookingSummary> expected = compute(itemIds, timeNow);
+            Map<Long, ItemBookingSummary> actual = summaryStorage.findAllById(itemIds).stream()
+                    .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+
+            for (Long itemId : itemIds) {
+                ItemBookingSummary stored = actual.getOrDefault(itemId, empty(itemId));
+                if (stored.isStaleAt(timeNow)) {
+                    pending++;
+                } else if (!sameBookings(stored, expected.get(itemId))) {
+                    drifted++;
+                    if (driftedItemIds.size() < MAX_REPORTED_ITEMS) {
+                        driftedItemIds.add(itemId);
+                    }
+                }
+            }
+            checked += itemIds.size();
+            lastId = itemIds.get(itemIds.size() - 1);
+        } while (itemIds.size() == CHECK_BATCH_SIZE);
+
+        if (drifted > 0) {
+            log.warn("Сводки бронирований расходятся с бронированиями у {} предметов из {}: {}", drifted, checked,
+                    driftedItemIds);
+        }
+        return ItemBookingSummaryDriftDto.builder()
+                .checkedItems(checked)
+                .pendingRollForward(pending)
+                .driftedItems(drifted)
+                .driftedItemIds(driftedItemIds)
+                .build();
+    }
+
+    private void refresh(Long itemId, LocalDateTime timeNow) {
+        itemStorage.findByIdForUpdate(itemId);
+        summaryStorage.save(compute(List.of(itemId), timeNow).get(itemId));
+    }
+
+    /**
+     * Считает сводки по бронированиям. В результате есть все переданные предметы, в том числе без бронирований.
+     */
+    private Map<Long, ItemBookingSummary> compute(Collection<Long> itemIds, LocalDateTime timeNow) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        for (Long itemId : itemIds) {
+            summaries.put(itemId, empty(itemId));
+        }
+        // запрос упорядочен по началу от поздних к ранним, при равном начале первым идёт меньший id
+        for (Booking booking : bookingStorage.findLastAndNextBookingsByItemIds(itemIds, timeNow)) {
+            ItemBookingSummary summary = summaries.get(booking.getItem().getId());
+            if (booking.getStart().isAfter(timeNow)) {
+                if (summary.getNextBooking() == null) {
+                    summary.setNextBooking(booking);
+                    summary.setRollsAt(booking.getStart());
+                }
+            } else if (summary.getLastBooking() == null) {
+                summary.setLastBooking(booking);
+            }
+        }
+        return summaries;
+    }
+
+    private static ItemBookingSummary empty(Long itemId) {
+        return ItemBookingSummary.builder().itemId(itemId).build();
+    }
+
+    private static boolean sameBookings(ItemBookingSummary stored, ItemBookingSummary expected) {
+        return Objects.equals(id(stored.getLastBooking()), id(expected.getLastBooking()))
+                && Objects.equals(id(stored.getNextBooking()), id(expected.getNextBooking()))
+                && Objects.equals(stored.getRollsAt(), expected.getRollsAt());
+    }
+
+    private static Long id(Booking booking) {
+        return booking == null ? null : booking.getId();
+    }
+}
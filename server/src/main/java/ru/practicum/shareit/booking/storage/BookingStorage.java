@@ -1,92 +1,190 @@
 package ru.practicum.shareit.booking.storage;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.dto.BookingAnswerView;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.etag.VersionStamp;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingStorage extends JpaRepository<Booking, Long>,
         PagingAndSortingRepository<Booking, Long> {
+    // отбор по внешнему ключу b.booker.id: производный запрос соединил бы users через LEFT JOIN,
+    // и условие по u.id не попало бы в индекс по booker_id
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    @Query("select b" +
+            " from Booking as b" +
+            " where b.booker.id = ?1")
     List<Booking> findAllByBookerId(Long bookerId, Pageable pageable);
 
-
+    @Query("select b" +
+            " from Booking as b" +
+            " where b.booker.id = ?1")
     List<Booking> findAllByBookerId(Long bookerId);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.booker as u" +
-            " where u.id = ?1" +
+            " where b.booker.id = ?1" +
             " and b.start <= ?2" +
             " and b.end > ?2")
     List<Booking> findCurrentBookingsByBookerId(Long bookerId, LocalDateTime timeNow, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.booker as u" +
-            " where u.id = ?1" +
+            " where b.booker.id = ?1" +
             " and b.end <= ?2")
     List<Booking> findByBookerIdAndEndInPast(Long bookerId, LocalDateTime endTime, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.booker as u" +
-            " where u.id = ?1" +
+            " where b.booker.id = ?1" +
             " and b.start > ?2")
     List<Booking> findByBookerIdAndStartInFuture(Long bookerId, LocalDateTime startTime, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.booker as u" +
-            " where u.id = ?1" +
+            " where b.booker.id = ?1" +
             " and b.status = ?2")
     List<Booking> findByBookerIdAndStatusContaining(Long bookerId, Status status, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.item as i" +
-            " join i.owner as o" +
-            " where o.id = ?1")
+            " where b.ownerId = ?1")
     List<Booking> getAllBookingsForOwnersItems(Long userId, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.item as i" +
-            " join i.owner as o" +
-            " where o.id = ?1" +
+            " where b.ownerId = ?1" +
             " and b.start <= ?2" +
             " and b.end > ?2")
     List<Booking> getCurrentBookingsForOwnersItems(Long userId, LocalDateTime startTime,
                                                    Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.item as i" +
-            " join i.owner as o" +
-            " where o.id = ?1" +
+            " where b.ownerId = ?1" +
             " and b.end <= ?2")
     List<Booking> getPastBookingsForOwnersItems(Long userId, LocalDateTime endTime, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.item as i" +
-            " join i.owner as o" +
-            " where o.id = ?1" +
+            " where b.ownerId = ?1" +
             " and b.start > ?2")
     List<Booking> getFutureBookingsForOwnersItems(Long userId, LocalDateTime startTime, Pageable pageable);
 
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
     @Query("select b" +
             " from Booking as b" +
-            " join b.item as i" +
-            " join i.owner as o" +
-            " where o.id = ?1" +
+            " where b.ownerId = ?1" +
             " and b.status = ?2")
     List<Booking> getBookingsForOwnersWithStatusContaining(Long userId, Status status, Pageable pageable);
 
+    @Query("select b.id as id, b.start as startDate, b.end as endDate, b.status as status," +
+            " i.id as itemId, i.name as itemName, i.description as itemDescription," +
+            " i.available as itemAvailable, i.request.id as itemRequestId," +
+            " u.id as bookerId, u.name as bookerName, u.email as bookerEmail" +
+            " from Booking as b" +
+            " join b.item as i" +
+            " join b.booker as u" +
+            " where u.id = :userId" +
+            " and b.status in :statuses" +
+            " and b.start > :startAfter and b.start <= :startUntil" +
+            " and b.end > :endAfter and b.end <= :endUntil" +
+            " and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))" +
+            " order by b.start desc, b.id desc")
+    List<BookingAnswerView> findByBookerIdBeforeCursor(@Param("userId") Long userId,
+                                                       @Param("statuses") Collection<Status> statuses,
+                                                       @Param("startAfter") LocalDateTime startAfter,
+                                                       @Param("startUntil") LocalDateTime startUntil,
+                                                       @Param("endAfter") LocalDateTime endAfter,
+                                                       @Param("endUntil") LocalDateTime endUntil,
+                                                       @Param("cursorStart") LocalDateTime cursorStart,
+                                                       @Param("cursorId") Long cursorId,
+                                                       Pageable pageable);
+
+    @Query("select b.id as id, b.start as startDate, b.end as endDate, b.status as status," +
+            " i.id as itemId, i.name as itemName, i.description as itemDescription," +
+            " i.available as itemAvailable, i.request.id as itemRequestId," +
+            " u.id as bookerId, u.name as bookerName, u.email as bookerEmail" +
+            " from Booking as b" +
+            " join b.item as i" +
+            " join b.booker as u" +
+            " where u.id = :userId" +
+            " and b.status in :statuses" +
+            " and b.start > :startAfter and b.start <= :startUntil" +
+            " and b.end > :endAfter and b.end <= :endUntil" +
+            " and (b.start > :cursorStart or (b.start = :cursorStart and b.id > :cursorId))" +
+            " order by b.start, b.id")
+    List<BookingAnswerView> findByBookerIdAfterCursor(@Param("userId") Long userId,
+                                                      @Param("statuses") Collection<Status> statuses,
+                                                      @Param("startAfter") LocalDateTime startAfter,
+                                                      @Param("startUntil") LocalDateTime startUntil,
+                                                      @Param("endAfter") LocalDateTime endAfter,
+                                                      @Param("endUntil") LocalDateTime endUntil,
+                                                      @Param("cursorStart") LocalDateTime cursorStart,
+                                                      @Param("cursorId") Long cursorId,
+                                                      Pageable pageable);
+
+    @Query("select b.id as id, b.start as startDate, b.end as endDate, b.status as status," +
+            " i.id as itemId, i.name as itemName, i.description as itemDescription," +
+            " i.available as itemAvailable, i.request.id as itemRequestId," +
+            " u.id as bookerId, u.name as bookerName, u.email as bookerEmail" +
+            " from Booking as b" +
+            " join b.item as i" +
+            " join b.booker as u" +
+            " where b.ownerId = :userId" +
+            " and b.status in :statuses" +
+            " and b.start > :startAfter and b.start <= :startUntil" +
+            " and b.end > :endAfter and b.end <= :endUntil" +
+            " and (b.start < :cursorStart or (b.start = :cursorStart and b.id < :cursorId))" +
+            " order by b.start desc, b.id desc")
+    List<BookingAnswerView> getBookingsForOwnersItemsBeforeCursor(@Param("userId") Long userId,
+                                                                  @Param("statuses") Collection<Status> statuses,
+                                                                  @Param("startAfter") LocalDateTime startAfter,
+                                                                  @Param("startUntil") LocalDateTime startUntil,
+                                                                  @Param("endAfter") LocalDateTime endAfter,
+                                                                  @Param("endUntil") LocalDateTime endUntil,
+                                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                                  @Param("cursorId") Long cursorId,
+                                                                  Pageable pageable);
+
+    /**
+     * Все бронирования пользователя для выгрузки. Строки читаются курсором порциями по fetch size,
+     * поэтому поток нужно закрыть, а читать его — внутри транзакции.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select b.id as id, b.start as startDate, b.end as endDate, b.status as status," +
+            " i.id as itemId, i.name as itemName, i.description as itemDescription," +
+            " i.available as itemAvailable, i.request.id as itemRequestId," +
+            " u.id as bookerId, u.name as bookerName, u.email as bookerEmail" +
+            " from Booking as b" +
+            " join b.item as i" +
+            " join b.booker as u" +
+            " where u.id = ?1" +
+            " order by b.start desc, b.id desc")
+    Stream<BookingAnswerView> streamByBookerId(Long bookerId);
+
     @Query("select b" +
             " from Booking as b" +
             " join b.item as i" +
@@ -94,6 +192,46 @@ public interface BookingStorage extends JpaRepository<Booking, Long>,
             " order by b.start desc")
     List<Booking> findByItemIdOrderByStart(Long itemId);
 
+    @Query("select b" +
+            " from Booking as b" +
+            " join fetch b.booker" +
+            " where b.item.id in ?1" +
+            " and b.status <> ru.practicum.shareit.booking.Status.REJECTED" +
+            " and (b.start = (select max(l.start)" +
+            "                 from Booking as l" +
+            "                 where l.item = b.item" +
+            "                 and l.status <> ru.practicum.shareit.booking.Status.REJECTED" +
+            "                 and l.start <= ?2)" +
+            " or b.start = (select min(n.start)" +
+            "               from Booking as n" +
+            "               where n.item = b.item" +
+            "               and n.status <> ru.practicum.shareit.booking.Status.REJECTED" +
+            "               and n.start > ?2))" +
+            " order by b.start desc, b.id")
+    List<Booking> findLastAndNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime timeNow);
+
+    /**
+     * Чужие предметы, которые бронировал пользователь: при его удалении бронирования уходят каскадом,
+     * и сводки этих предметов нужно пересчитать.
+     */
+    @Query("select distinct b.item.id" +
+            " from Booking as b" +
+            " where b.booker.id = ?1" +
+            " and b.ownerId <> ?1")
+    List<Long> findBookedItemIdsByBookerId(Long bookerId);
+
+    /**
+     * Есть ли у предмета бронирование с указанным статусом, пересекающееся с полуинтервалом [start, end).
+     */
+    @Query("select case when count(b) > 0 then true else false end" +
+            " from Booking as b" +
+            " where b.item.id = ?1" +
+            " and b.status = ?2" +
+            " and b.start < ?3" +
+            " and b.end > ?4")
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfter(Long itemId, Status status, LocalDateTime end,
+                                                              LocalDateTime start);
+
     @Query("select b" +
             " from Booking as b" +
             " join b.item as i" +
@@ -102,4 +240,19 @@ public interface BookingStorage extends JpaRepository<Booking, Long>,
             " and i.id = ?2" +
             " order by b.start desc")
     List<Booking> findByBookerIdAndItemId(Long bookerId, Long itemId);
+
+    @Query("select b.version as version, i.version as itemVersion, u.version as bookerVersion," +
+            " i.id as itemId, i.owner.id as ownerId, u.id as bookerId" +
+            " from Booking as b" +
+            " join b.item as i" +
+            " join b.booker as u" +
+            " where b.id = ?1")
+    Optional<BookingVersionView> findVersionsById(Long bookingId);
+
+    @Query("select count(b) as total, max(b.id) as maxId, sum(b.version) as versionSum" +
+            " from Booking as b" +
+            " where b.item.id = ?1")
+    VersionStamp getVersionStampByItemId(Long itemId);
+
+    long countByItemIdAndStartLessThanEqual(Long itemId, LocalDateTime timeNow);
 }
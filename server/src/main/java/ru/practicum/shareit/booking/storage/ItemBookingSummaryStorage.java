@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryStorage extends JpaRepository<ItemBookingSummary, Long> {
+
+    @Query("select s" +
+            " from ItemBookingSummary as s" +
+            " left join fetch s.lastBooking" +
+            " left join fetch s.nextBooking" +
+            " where s.itemId = ?1")
+    Optional<ItemBookingSummary> findWithBookingsByItemId(Long itemId);
+
+    @Query("select s.itemId" +
+            " from ItemBookingSummary as s" +
+            " where s.rollsAt <= ?1" +
+            " order by s.rollsAt")
+    List<Long> findItemIdsToRollForward(LocalDateTime timeNow, Pageable pageable);
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Кэш второго уровня Hibernate для пользователей и предметов. Кэш локальный, поэтому время жизни записей
+ * ограничено: изменения, сделанные другим экземпляром сервера, станут видны не позже чем через ttl.
+ */
+@Configuration
+public class EntityCacheConfig {
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(User.class, Item.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${shareit.cache.entity.max-size:10000}") long maxSize,
+                                           @Value("${shareit.cache.entity.ttl:10m}") Duration ttl) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // свой менеджер на каждый контекст: иначе контексты с разными базами (например, в тестах) делили бы записи
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("shareit:entity-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (Class<?> entity : CACHED_ENTITIES) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(entity.getName(), configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            // все регионы создаются выше с ограничением размера, неожиданный регион — ошибка конфигурации
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> {
+            for (Class<?> entity : CACHED_ENTITIES) {
+                JCacheMetrics.monitor(registry, entityCacheManager.getCache(entity.getName()),
+                        "entity", entity.getSimpleName());
+            }
+        };
+    }
+}
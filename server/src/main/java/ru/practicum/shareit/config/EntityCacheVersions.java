@@ -0,0 +1,37 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Сверяет версии сущностей в кэше второго уровня с версиями, прочитанными из базы. ETag строится по версиям
+ * из базы, а тело ответа — по сущностям, которые могут прийти из кэша. Если кэш отстал (сущность изменил
+ * другой экземпляр сервера), запись убирается, и тело читается из базы вместе со свежим ETag.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheVersions {
+    private final EntityManager entityManager;
+
+    public void evictIfStale(Class<?> entityClass, Object id, long version) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMetamodel().entityPersister(entityClass);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        Object key = access.generateCacheKey(id, persister, factory, session.getTenantIdentifier());
+        Object cached = access.get(session, key);
+        if (cached instanceof CacheEntry && !Long.valueOf(version).equals(((CacheEntry) cached).getVersion())) {
+            access.evict(key);
+        }
+    }
+}
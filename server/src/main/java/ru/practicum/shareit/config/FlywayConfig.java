@@ -0,0 +1,22 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${shareit.db.migration-mode:MIGRATE}") MigrationMode migrationMode) {
+        return flyway -> {
+            if (migrationMode == MigrationMode.VALIDATE) {
+                flyway.validate();
+            } else {
+                flyway.migrate();
+            }
+        };
+    }
+}
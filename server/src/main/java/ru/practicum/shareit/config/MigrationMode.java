@@ -0,0 +1,7 @@
+package ru.practicum.shareit.config;
+
+public enum MigrationMode {
+
+    MIGRATE, // при старте применяются все новые миграции
+    VALIDATE // при старте только проверяется, что схема БД совпадает с миграциями, иначе сервер не запустится
+}
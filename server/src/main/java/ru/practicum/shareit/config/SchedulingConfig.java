@@ -0,0 +1,14 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Плановые задачи сервера. В тестах выключены: фоновые запросы мешали бы считать SQL-запросы теста.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(value = "shareit.scheduling.enabled", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Пользователи, недавно записавшие что-то в основную базу. Их чтения в течение окна идут мимо реплик,
+ * иначе отстающая реплика могла бы вернуть данные без только что сделанного изменения. Пользователь
+ * запроса известен из заголовка X-Sharer-User-Id, см. {@link ReadYourWritesFilter}.
+ */
+public class ReadYourWrites {
+    private final ThreadLocal<Long> currentUser = new ThreadLocal<>();
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWrites(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    void setCurrentUser(Long userId) {
+        currentUser.set(userId);
+    }
+
+    void clearCurrentUser() {
+        currentUser.remove();
+    }
+
+    /**
+     * Вызывается, когда пишущая транзакция берёт соединение с основной базой. Окно отсчитывается от
+     * коммита: раньше изменение не может появиться и на репликах.
+     */
+    void onWrite() {
+        Long userId = currentUser.get();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    boolean mustReadPrimary() {
+        Long userId = currentUser.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final ReadYourWrites readYourWrites;
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        readYourWrites.setCurrentUser(userId(request.getHeader(USER_HEADER)));
+        replicaRoutingDataSource.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            replicaRoutingDataSource.endRequest();
+            readYourWrites.clearCurrentUser();
+        }
+    }
+
+    private static Long userId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для читающих транзакций. Пока не задана ни одна, все запросы идут в spring.datasource.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datasource")
+public class ReplicaProperties {
+    private List<Replica> replicas = new ArrayList<>();
+
+    // после своей записи пользователь читает из основной базы, пока реплики не догонят её
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
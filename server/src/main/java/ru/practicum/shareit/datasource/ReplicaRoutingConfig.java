@@ -0,0 +1,81 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty("shareit.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaProperties properties) {
+        return new ReadYourWrites(properties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites,
+                                                     ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReadYourWritesFilter(readYourWrites, replicaRoutingDataSource);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties properties,
+                                                             ReadYourWrites readYourWrites,
+                                                             Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        // автонастройка Boot здесь отключена, поэтому настройки пула spring.datasource.hikari.* переносятся сами
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            dataSource.setPoolName("replica-" + i);
+            replicas.add(dataSource);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWrites, properties.getHealthCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * По умолчанию сессия держит соединение до закрытия, а с open-in-view это весь HTTP-запрос: первая
+     * транзакция запроса определила бы источник для всех остальных, в том числе пишущих.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
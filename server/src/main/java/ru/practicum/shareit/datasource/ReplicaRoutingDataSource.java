@@ -0,0 +1,173 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Отдаёт соединения читающих транзакций с реплик по кругу, а всех остальных — с основной базы. Реплика,
+ * которая не дала соединение, исключается до следующей успешной проверки; если исправных реплик нет,
+ * чтение тоже идёт в основную базу.
+ * <p>
+ * Признак readOnly выставляется уже после того, как транзакция взяла соединение, поэтому источник
+ * оборачивается в LazyConnectionDataSourceProxy: настоящее соединение берётся при первом запросе.
+ * <p>
+ * Внутри HTTP-запроса (см. {@link ReadYourWritesFilter}) все читающие транзакции идут в одну реплику: иначе
+ * ETag и тело ответа, прочитанные разными транзакциями, могли бы прийти с реплик с разным отставанием.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ThreadLocal<RequestPin> requestPin = new ThreadLocal<>();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites,
+                                    Duration healthCheckInterval) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.readYourWrites = readYourWrites;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.onWrite();
+            return primary.getConnection();
+        }
+        if (readYourWrites.mustReadPrimary()) {
+            return primary.getConnection();
+        }
+        RequestPin pin = requestPin.get();
+        if (pin != null && pin.replica != null) {
+            Connection connection = tryReplica(pin.replica);
+            if (connection != null) {
+                return connection;
+            }
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            Connection connection = tryReplica(replica);
+            if (connection != null) {
+                if (pin != null) {
+                    pin.replica = replica;
+                }
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private static Connection tryReplica(Replica replica) {
+        if (!replica.healthy) {
+            return null;
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            replica.healthy = false;
+            log.warn("Реплика {} недоступна, чтение переключено на другие источники: {}", replica.name,
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Начинает HTTP-запрос: первая читающая транзакция выберет реплику, остальные пойдут в неё же.
+     */
+    void beginRequest() {
+        requestPin.set(new RequestPin());
+    }
+
+    void endRequest() {
+        requestPin.remove();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    DataSource getPrimary() {
+        return primary;
+    }
+
+    List<DataSource> getReplicas() {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (Replica replica : replicas) {
+            dataSources.add(replica.dataSource);
+        }
+        return dataSources;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Реплика {} {}", replica.name, healthy ? "снова доступна" : "недоступна");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    private static void closeQuietly(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    private static class RequestPin {
+        private Replica replica;
+    }
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
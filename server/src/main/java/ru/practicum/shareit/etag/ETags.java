@@ -0,0 +1,30 @@
+package ru.practicum.shareit.etag;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Строгие ETag ответов на чтение, собранные из версий сущностей, от которых зависит ответ.
+ * Сравнение такого ETag с If-None-Match не требует загрузки сущностей и построения DTO.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ETags {
+    private static final String SEPARATOR = "-";
+
+    public static String of(String resource, Object... parts) {
+        return resource + SEPARATOR + Arrays.stream(parts)
+                .map(ETags::format)
+                .collect(Collectors.joining(SEPARATOR));
+    }
+
+    private static String format(Object part) {
+        if (part instanceof VersionStamp) {
+            VersionStamp stamp = (VersionStamp) part;
+            return stamp.getTotal() + "." + stamp.getMaxId() + "." + stamp.getVersionSum();
+        }
+        return String.valueOf(part);
+    }
+}
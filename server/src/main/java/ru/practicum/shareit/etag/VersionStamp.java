@@ -0,0 +1,12 @@
+package ru.practicum.shareit.etag;
+
+/**
+ * Сводка версий набора строк: меняется при добавлении, удалении или изменении любой из них.
+ */
+public interface VersionStamp {
+    Long getTotal();
+
+    Long getMaxId();
+
+    Long getVersionSum();
+}
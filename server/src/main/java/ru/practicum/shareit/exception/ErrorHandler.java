@@ -1,10 +1,12 @@
 package ru.practicum.shareit.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.persistence.OptimisticLockException;
 import javax.validation.ValidationException;
 
 @RestControllerAdvice
@@ -21,4 +23,11 @@ public class ErrorHandler {
     public ErrorResponse handleNotFound(final RuntimeException exception) {
         return new ErrorResponse(exception.getMessage());
     }
+
+    // запись успели изменить параллельно: повтор запроса увидит новое состояние
+    @ExceptionHandler({ObjectOptimisticLockingFailureException.class, OptimisticLockException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflict(final RuntimeException exception) {
+        return new ErrorResponse("Данные были изменены другим запросом, повторите попытку");
+    }
 }
\ No newline at end of file
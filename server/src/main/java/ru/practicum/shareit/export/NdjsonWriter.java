@@ -0,0 +1,53 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Пишет значения в ответ построчно в формате NDJSON. Каждое значение сериализуется сразу в выходной поток,
+ * так что память не зависит от числа строк в выгрузке.
+ * <p>
+ * Тип ответа выставляется и поток открывается при первой записи: если выгрузка упала раньше, ответ ещё
+ * не отправлен и ошибку можно вернуть обычным образом.
+ */
+public class NdjsonWriter<T> implements Consumer<T>, Closeable {
+    private final ObjectWriter objectWriter;
+    private final HttpServletResponse response;
+    private SequenceWriter writer;
+
+    public NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response, Class<T> valueType) {
+        this.objectWriter = objectMapper.writerFor(valueType).withRootValueSeparator("\n");
+        this.response = response;
+    }
+
+    @Override
+    public void accept(T value) {
+        try {
+            if (writer == null) {
+                // тип выставляется только здесь: с ним ErrorHandler уже не смог бы ответить ошибкой в JSON
+                response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                writer = objectWriter.writeValues(response.getOutputStream());
+            }
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
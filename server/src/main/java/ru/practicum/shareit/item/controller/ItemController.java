@@ -1,13 +1,26 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDetailedDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * TODO Sprint add-controllers.
@@ -17,21 +30,41 @@ import java.util.List;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImporter itemImporter;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId, @RequestBody ItemDto itemDto) {
         return itemService.create(userId, itemDto);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ItemImportResultDto createBatch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                           InputStream body) throws IOException {
+        return itemImporter.importItems(userId, body);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId,
                           @RequestBody ItemDto itemDto) {
         return itemService.update(userId, itemId, itemDto);
     }
 
+    @GetMapping("/export")
+    public void exportItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                   HttpServletResponse response) throws IOException {
+        try (NdjsonWriter<ItemDto> writer = new NdjsonWriter<>(objectMapper, response, ItemDto.class)) {
+            itemService.exportItemsByOwner(userId, writer);
+        }
+    }
+
     @GetMapping("/{itemId}")
     public ItemDetailedDto getByUserIdAndItemId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @PathVariable Long itemId) {
+                                                @PathVariable Long itemId, WebRequest request) {
+        Optional<String> eTag = itemService.getETag(userId, itemId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         return itemService.getByUserIdAndItemId(userId, itemId);
     }
 
@@ -54,4 +87,13 @@ public class ItemController {
                                  @RequestBody CommentDto commentDto) {
         return itemService.addComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Колонки отзыва и имя его автора, из которых собирается {@link CommentDto}.
+ */
+public interface CommentView {
+    Long getId();
+
+    String getText();
+
+    Long getItemId();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemAvailabilityDto {
+    Long itemId;
+
+    LocalDateTime from;
+
+    LocalDateTime to;
+
+    Boolean available;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Колонки предмета, из которых собирается {@link ItemDto}.
+ */
+public interface ItemView {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+}
@@ -7,8 +7,10 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDetailedDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -33,6 +35,16 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto toItemDto(@NotNull ItemView item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .requestId(item.getRequestId())
+                .build();
+    }
+
     public static Item toItemOnRequest(@NotNull User user, @NotNull ItemDto itemDto, ItemRequest request) {
         return Item.builder()
                 .name(itemDto.getName())
@@ -61,11 +73,10 @@ public class ItemMapper {
     }
 
     public static ItemDetailedDto toItemDetailedDto(@NotNull Item item, Booking lastBooking, Booking nextBooking,
-                                                    List<Comment> comments) {
+                                                    List<CommentDto> comments) {
 
         BookingDto last = lastBooking != null ? BookingMapper.toBookingDto(lastBooking) : null;
         BookingDto next = nextBooking != null ? BookingMapper.toBookingDto(nextBooking) : null;
-        List<CommentDto> commentDtoList = comments != null ? ItemMapper.toCommentDtoList(comments) : null;
 
         return ItemDetailedDto.builder()
                 .id(item.getId())
@@ -74,7 +85,7 @@ public class ItemMapper {
                 .available(item.isAvailable())
                 .lastBooking(last)
                 .nextBooking(next)
-                .comments(commentDtoList)
+                .comments(comments)
                 .build();
     }
 
@@ -97,6 +108,16 @@ public class ItemMapper {
                 .build();
     }
 
+    public static CommentDto toCommentDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .itemId(comment.getItemId())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
+
     public static List<CommentDto> toCommentDtoList(List<Comment> comments) {
         List<CommentDto> commentDtoList = new ArrayList<>();
         for (Comment comment : comments) {
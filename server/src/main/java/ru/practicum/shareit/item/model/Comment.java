@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Comment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_id_seq")
+    @SequenceGenerator(name = "comments_id_seq", sequenceName = "comments_id_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "text", nullable = false)
@@ -33,5 +34,5 @@ public class Comment {
     User author;
 
     @Column(name = "created")
-    LocalDateTime created = LocalDateTime.now();
+    LocalDateTime created;
 }
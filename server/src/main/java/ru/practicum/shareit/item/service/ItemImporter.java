@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.user.storage.KnownUserIds;
+
+import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Загрузка каталога предметов из тела запроса — JSON-массива или NDJSON. Предметы читаются по одному
+ * и сохраняются пачками по {@code shareit.item.import.chunk-size}, каждая пачка в своей транзакции,
+ * поэтому каталог целиком в памяти не держится. При ошибке в данных уже сохранённые пачки остаются в базе.
+ */
+@Slf4j
+@Component
+public class ItemImporter {
+    private final ItemService itemService;
+    private final KnownUserIds knownUserIds;
+    private final ObjectReader itemReader;
+    private final int chunkSize;
+
+    public ItemImporter(ItemService itemService, KnownUserIds knownUserIds, ObjectMapper objectMapper,
+                        @Value("${shareit.item.import.chunk-size:1000}") int chunkSize) {
+        this.itemService = itemService;
+        this.knownUserIds = knownUserIds;
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public ItemImportResultDto importItems(Long userId, InputStream body) throws IOException {
+        if (!knownUserIds.exists(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+
+        int created = 0;
+        List<ItemDto> chunk = new ArrayList<>(chunkSize);
+        // readValues разворачивает JSON-массив верхнего уровня и так же читает значения, идущие подряд
+        try (MappingIterator<ItemDto> items = itemReader.readValues(body)) {
+            while (items.hasNextValue()) {
+                chunk.add(items.nextValue());
+                if (chunk.size() == chunkSize) {
+                    created += itemService.createBatch(userId, chunk).size();
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Загружено предметов: " + created + ", ошибка в предмете "
+                    + (created + chunk.size() + 1) + ": " + e.getOriginalMessage());
+        }
+        if (!chunk.isEmpty()) {
+            created += itemService.createBatch(userId, chunk).size();
+        }
+
+        log.info("Пользователь с id {} загрузил {} предметов", userId, created);
+        return ItemImportResultDto.builder()
+                .created(created)
+                .build();
+    }
+}
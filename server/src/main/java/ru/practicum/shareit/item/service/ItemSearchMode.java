@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item.service;
+
+public enum ItemSearchMode {
+
+    LIKE, // поиск по подстроке через lower(...) like, работает на любой БД
+    FULLTEXT, // полнотекстовый поиск PostgreSQL по столбцу items.search_vector с ранжированием
+    MEMORY // инвертированный индекс в памяти сервера, до его построения используется LIKE
+}
@@ -1,21 +1,33 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDetailedDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto create(Long userId, ItemDto itemDto);
 
+    List<ItemDto> createBatch(Long userId, List<ItemDto> itemDtoList);
+
     ItemDto update(Long userId, Long itemId, ItemDto itemDto);
 
     ItemDetailedDto getByUserIdAndItemId(Long userId, Long itemId);
 
     List<ItemDetailedDto> getItemsUser(Long userId, Integer from, Integer size);
 
+    void exportItemsByOwner(Long userId, Consumer<ItemDto> consumer);
+
     List<ItemDto> getItemsOnRequest(String text, Integer from, Integer size);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    Optional<String> getETag(Long userId, Long itemId);
 }
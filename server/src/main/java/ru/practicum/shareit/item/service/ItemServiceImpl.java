@@ -1,42 +1,73 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
 import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.config.EntityCacheVersions;
+import ru.practicum.shareit.etag.ETags;
+import ru.practicum.shareit.etag.VersionStamp;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDetailedDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemSearchIndex;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
+import ru.practicum.shareit.time.CoarseClock;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.KnownUserIds;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import javax.persistence.EntityManager;
 import javax.validation.ValidationException;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
+    private final KnownUserIds knownUserIds;
     private final BookingStorage bookingStorage;
+    private final ItemBookingSummaryService itemBookingSummaryService;
     private final CommentStorage commentStorage;
     private final ItemRequestStorage itemRequestStorage;
+    private final ItemSearchIndex itemSearchIndex;
+    private final Clock clock;
+    private final CoarseClock coarseClock;
+    private final EntityManager entityManager;
+    private final EntityCacheVersions entityCacheVersions;
+
+    @Value("${shareit.item.search-mode:LIKE}")
+    private ItemSearchMode searchMode;
 
     @Transactional
     @Override
@@ -51,11 +82,44 @@ public class ItemServiceImpl implements ItemService {
             if (optionalItemRequest.isPresent()) {
                 ItemRequest itemRequest = optionalItemRequest.get();
                 Item item = ItemMapper.toItemOnRequest(user, itemDto, itemRequest);
-                return ItemMapper.toItemDto(itemStorage.save(item));
+                return indexed(ItemMapper.toItemDto(itemStorage.save(item)));
             }
         }
         Item item = ItemMapper.toItem(user, itemDto);
-        return ItemMapper.toItemDto(itemStorage.save(item));
+        return indexed(ItemMapper.toItemDto(itemStorage.save(item)));
+    }
+
+    /**
+     * Сохраняет пачку предметов одной транзакцией. Идентификаторы заранее выделяются из последовательности,
+     * поэтому вставки уходят в базу пакетами по hibernate.jdbc.batch_size. После сохранения контекст
+     * персистентности очищается: с open-in-view он живёт весь HTTP-запрос и иначе копил бы предметы всех пачек
+     * загрузки, а каждый flush проверял бы их все.
+     */
+    @Transactional
+    @Override
+    public List<ItemDto> createBatch(Long userId, List<ItemDto> itemDtoList) {
+        User user = userStorage.findById(userId).orElseThrow(() ->
+                new NotFoundException("Пользователь с id " + userId + " не найден"));
+
+        Set<Long> requestIds = itemDtoList.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestStorage.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> items = new ArrayList<>();
+        for (ItemDto itemDto : itemDtoList) {
+            items.add(ItemMapper.toItemOnRequest(user, itemDto, requests.get(itemDto.getRequestId())));
+        }
+
+        List<ItemDto> created = new ArrayList<>();
+        for (Item item : itemStorage.saveAll(items)) {
+            created.add(indexed(ItemMapper.toItemDto(item)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return created;
     }
 
     @Transactional
@@ -82,42 +146,32 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(itemDto.getAvailable());
         }
 
-        return ItemMapper.toItemDto(itemStorage.save(item));
+        return indexed(ItemMapper.toItemDto(itemStorage.save(item)));
     }
 
+    @Transactional(readOnly = true)
     @Override
     public ItemDetailedDto getByUserIdAndItemId(Long userId, Long itemId) {
         checkUser(userId);
         Item item = itemStorage.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Предмет с id " + itemId + " не найден"));
 
-        List<Comment> comments = new ArrayList<>();
-
-        if (!commentStorage.findByItemId(itemId).isEmpty()) {
-            comments.addAll(commentStorage.findByItemId(itemId));
-        }
+        List<CommentDto> comments = commentStorage.findByItemId(itemId).stream()
+                .map(ItemMapper::toCommentDto)
+                .collect(Collectors.toList());
 
         Booking lastBooking = null;
         Booking nextBooking = null;
 
         if (userId.equals(item.getOwner().getId())) {
-            List<Booking> bookings = bookingStorage.findByItemIdOrderByStart(itemId);
-            bookings = bookings.stream().filter(e -> !e.getStatus().equals(Status.REJECTED))
-                    .collect(Collectors.toList());
-
-            LocalDateTime timeNow = LocalDateTime.now();
-            for (Booking booking : bookings) {
-                if (booking.getStart().isAfter(timeNow)) {
-                    nextBooking = booking;
-                } else {
-                    lastBooking = booking;
-                    break;
-                }
-            }
+            ItemBookingSummary summary = itemBookingSummaryService.getSummary(itemId);
+            lastBooking = summary.getLastBooking();
+            nextBooking = summary.getNextBooking();
         }
         return ItemMapper.toItemDetailedDto(item, lastBooking, nextBooking, comments);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<ItemDetailedDto> getItemsUser(Long userId, Integer from, Integer size) {
         checkUser(userId);
@@ -128,34 +182,49 @@ public class ItemServiceImpl implements ItemService {
         List<Item> items = itemStorage
                 .findByOwnerIdOrderById(userId, PageRequest.of(page, size, Sort.by("id")));
 
-        Booking lastBooking = null;
-        Booking nextBooking = null;
+        if (items.isEmpty()) {
+            return itemDetailedDtoList;
+        }
 
-        for (Item item : items) {
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
 
-            List<Booking> bookings = bookingStorage.findByItemIdOrderByStart(item.getId());
-            bookings = bookings.stream().filter(e -> !e.getStatus().equals(Status.REJECTED))
-                    .collect(Collectors.toList());
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
 
-            LocalDateTime timeNow = LocalDateTime.now();
+        LocalDateTime timeNow = coarseClock.now();
 
-            for (Booking booking : bookings) {
-                if (booking.getStart().isAfter(timeNow)) {
-                    nextBooking = booking;
-                } else {
-                    lastBooking = booking;
-                    break;
-                }
+        for (Booking booking : bookingStorage.findLastAndNextBookingsByItemIds(itemIds, timeNow)) {
+            if (booking.getStart().isAfter(timeNow)) {
+                nextBookings.putIfAbsent(booking.getItem().getId(), booking);
+            } else {
+                lastBookings.putIfAbsent(booking.getItem().getId(), booking);
             }
-            List<Comment> comments = commentStorage.findByItemId(item.getId());
-            itemDetailedDtoList.add(ItemMapper.toItemDetailedDto(item, lastBooking, nextBooking, comments));
+        }
 
-            lastBooking = null;
-            nextBooking = null;
+        Map<Long, List<CommentDto>> comments = commentStorage.findAllByItemIdIn(itemIds).stream()
+                .map(ItemMapper::toCommentDto)
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+
+        for (Item item : items) {
+            itemDetailedDtoList.add(ItemMapper.toItemDetailedDto(item, lastBookings.get(item.getId()),
+                    nextBookings.get(item.getId()), comments.getOrDefault(item.getId(), new ArrayList<>())));
         }
         return itemDetailedDtoList;
     }
 
+    /**
+     * Передаёт все предметы владельца в consumer по одному. Бронирования и отзывы в выгрузку не входят.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportItemsByOwner(Long userId, Consumer<ItemDto> consumer) {
+        checkUser(userId);
+        try (Stream<ItemView> items = itemStorage.streamByOwnerId(userId)) {
+            items.map(ItemMapper::toItemDto).forEach(consumer);
+        }
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public List<ItemDto> getItemsOnRequest(String text, Integer from, Integer size) {
         if (text.isEmpty() || text.isBlank()) {
@@ -164,6 +233,22 @@ public class ItemServiceImpl implements ItemService {
 
         int page = from / size;
 
+        switch (searchMode) {
+            case FULLTEXT:
+                String tsQuery = toPrefixTsQuery(text);
+                if (tsQuery.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                return ItemMapper.toItemDtoList(itemStorage.getItemOnRequestFullText(tsQuery,
+                        PageRequest.of(page, size)));
+            case MEMORY:
+                if (itemSearchIndex.isReady()) {
+                    return itemSearchIndex.search(text, from, size);
+                }
+                break;
+            default:
+                break;
+        }
         return ItemMapper.toItemDtoList(itemStorage.getItemOnRequest(text,
                 PageRequest.of(page, size, Sort.by("id").ascending())));
     }
@@ -183,7 +268,7 @@ public class ItemServiceImpl implements ItemService {
                     " т.к. он не арендовал предмет с id " + itemId);
         }
 
-        LocalDateTime timeNow = LocalDateTime.now();
+        LocalDateTime timeNow = LocalDateTime.now(clock);
         List<Booking> bookings = bookingStorage.findByBookerIdAndItemId(userId, itemId).stream()
                 .filter(b -> b.getEnd().isBefore(timeNow)).collect(Collectors.toList());
 
@@ -202,8 +287,65 @@ public class ItemServiceImpl implements ItemService {
         return ItemMapper.toCommentDto(commentStorage.save(comment));
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания");
+        }
+        Item item = itemStorage.findById(itemId).orElseThrow(() ->
+                new NotFoundException("Предмет с id " + itemId + " не найден"));
+
+        boolean available = item.isAvailable()
+                && !bookingStorage.existsByItemIdAndStatusAndStartBeforeAndEndAfter(itemId, Status.APPROVED, to, from);
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .available(available)
+                .build();
+    }
+
+    /**
+     * ETag ответа {@link #getByUserIdAndItemId}. Владелец видит ещё и ближайшие бронирования, поэтому его ETag
+     * учитывает версии бронирований и то, сколько из них уже началось.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getETag(Long userId, Long itemId) {
+        if (!knownUserIds.exists(userId)) {
+            return Optional.empty();
+        }
+        return itemStorage.findVersionById(itemId).map(item -> {
+            entityCacheVersions.evictIfStale(Item.class, itemId, item.getVersion());
+            VersionStamp comments = commentStorage.getVersionStampByItemId(itemId);
+            if (!userId.equals(item.getOwnerId())) {
+                return ETags.of("item", itemId, item.getVersion(), comments);
+            }
+            return ETags.of("item", itemId, item.getVersion(), comments,
+                    bookingStorage.getVersionStampByItemId(itemId),
+                    bookingStorage.countByItemIdAndStartLessThanEqual(itemId, LocalDateTime.now(clock)));
+        });
+    }
+
+    private ItemDto indexed(ItemDto itemDto) {
+        itemSearchIndex.onItemSaved(itemDto);
+        return itemDto;
+    }
+
+    /**
+     * Превращает текст запроса в tsquery, где каждое слово ищется по префиксу: "дрель акк" -> "дрель:* & акк:*".
+     */
+    private static String toPrefixTsQuery(String text) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
     public void checkUser(Long userId) {
-        if (!userStorage.existsById(userId)) {
+        if (!knownUserIds.exists(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
     }
@@ -1,11 +1,34 @@
 package ru.practicum.shareit.item.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.etag.VersionStamp;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentStorage extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByItemId(Long itemId);
+    @Query("select c.id as id, c.text as text, c.item.id as itemId, a.name as authorName, c.created as created" +
+            " from Comment as c" +
+            " join c.author as a" +
+            " where c.item.id = ?1" +
+            " order by c.id")
+    List<CommentView> findByItemId(Long itemId);
+
+    @Query("select c.id as id, c.text as text, c.item.id as itemId, a.name as authorName, c.created as created" +
+            " from Comment as c" +
+            " join c.author as a" +
+            " where c.item.id in ?1" +
+            " order by c.id")
+    List<CommentView> findAllByItemIdIn(Collection<Long> itemIds);
+
+    // в ответ попадает имя автора, поэтому учитываются и версии авторов
+    @Query("select count(c) as total, max(c.id) as maxId, sum(a.version) as versionSum" +
+            " from Comment as c" +
+            " join c.author as a" +
+            " where c.item.id = ?1")
+    VersionStamp getVersionStampByItemId(Long itemId);
 }
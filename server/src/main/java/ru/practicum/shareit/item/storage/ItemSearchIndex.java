@@ -0,0 +1,227 @@
+package ru.practicum.shareit.item.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по словам из названия и описания доступных для аренды предметов.
+ * Каждое слово запроса ищется по префиксу, результаты упорядочены по id предмета.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final ItemStorage itemStorage;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NavigableMap<String, LongPostingList> postings = new TreeMap<>();
+    private Map<Long, ItemDto> documents = new HashMap<>();
+
+    private List<ItemDto> pendingUpdates;
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemStorage itemStorage,
+                           @Value("${shareit.item.search-mode:LIKE}") ItemSearchMode searchMode) {
+        this.itemStorage = itemStorage;
+        this.enabled = searchMode == ItemSearchMode.MEMORY;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "item-search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Заново строит индекс по всем доступным предметам. Изменения, пришедшие во время перестроения,
+     * применяются к новому индексу перед его подменой.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        NavigableMap<String, LongPostingList> newPostings = new TreeMap<>();
+        Map<Long, ItemDto> newDocuments = new HashMap<>();
+        try {
+            long lastId = 0;
+            List<Item> batch;
+            do {
+                batch = itemStorage.findAvailableForIndexing(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Item item : batch) {
+                    put(newPostings, newDocuments, ItemMapper.toItemDto(item));
+                    lastId = item.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить поисковый индекс предметов", e);
+            lock.writeLock().lock();
+            try {
+                pendingUpdates = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (ItemDto itemDto : pendingUpdates) {
+                put(newPostings, newDocuments, itemDto);
+            }
+            pendingUpdates = null;
+            postings = newPostings;
+            documents = newDocuments;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс предметов построен, проиндексировано {} предметов", newDocuments.size());
+    }
+
+    /**
+     * Обновляет индекс после сохранения предмета. Внутри транзакции изменение применяется только после коммита.
+     */
+    public void onItemSaved(ItemDto itemDto) {
+        if (!enabled) {
+            return;
+        }
+        ItemDto snapshot = copy(itemDto);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(snapshot);
+                }
+            });
+        } else {
+            apply(snapshot);
+        }
+    }
+
+    public List<ItemDto> search(String text, int from, int size) {
+        List<String> tokens = tokenize(text);
+        List<ItemDto> result = new ArrayList<>();
+        if (tokens.isEmpty()) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            long[] matches = null;
+            for (String token : tokens) {
+                long[] tokenMatches = LongPostingList.union(
+                        postings.subMap(token, true, token + Character.MAX_VALUE, false).values());
+                matches = matches == null ? tokenMatches : LongPostingList.intersect(matches, tokenMatches);
+                if (matches.length <= from) {
+                    return result;
+                }
+            }
+
+            int to = (int) Math.min((long) from + size, matches.length);
+            for (int i = from; i < to; i++) {
+                result.add(copy(documents.get(matches[i])));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(ItemDto itemDto) {
+        lock.writeLock().lock();
+        try {
+            put(postings, documents, itemDto);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(itemDto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(NavigableMap<String, LongPostingList> postings, Map<Long, ItemDto> documents,
+                            ItemDto itemDto) {
+        ItemDto previous = documents.remove(itemDto.getId());
+        if (previous != null) {
+            for (String token : documentTokens(previous)) {
+                LongPostingList list = postings.get(token);
+                list.remove(previous.getId());
+                if (list.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+
+        if (!Boolean.TRUE.equals(itemDto.getAvailable())) {
+            return;
+        }
+        documents.put(itemDto.getId(), itemDto);
+        for (String token : documentTokens(itemDto)) {
+            postings.computeIfAbsent(token, key -> new LongPostingList()).add(itemDto.getId());
+        }
+    }
+
+    private static Set<String> documentTokens(ItemDto itemDto) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(itemDto.getName()));
+        tokens.addAll(tokenize(itemDto.getDescription()));
+        return tokens;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .forEach(tokens::add);
+        return tokens;
+    }
+
+    private static ItemDto copy(ItemDto itemDto) {
+        return ItemDto.builder()
+                .id(itemDto.getId())
+                .name(itemDto.getName())
+                .description(itemDto.getDescription())
+                .available(itemDto.getAvailable())
+                .requestId(itemDto.getRequestId())
+                .build();
+    }
+}
@@ -2,14 +2,28 @@ package ru.practicum.shareit.item.storage;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import ru.practicum.shareit.etag.VersionStamp;
+import ru.practicum.shareit.item.dto.ItemVersionView;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemStorage extends JpaRepository<Item, Long>, PagingAndSortingRepository<Item, Long> {
 
+    @Query("select i" +
+            " from Item as i" +
+            " where i.owner.id = ?1" +
+            " order by i.id")
     List<Item> findByOwnerIdOrderById(Long userId, Pageable pageable);
 
 
@@ -20,7 +34,78 @@ public interface ItemStorage extends JpaRepository<Item, Long>, PagingAndSorting
             " and i.available = true")
     List<Item> getItemOnRequest(String text, Pageable pageable);
 
-    List<Item> findAllByRequestId(Long requestId);
+    @Query(value = "select i.*" +
+            " from items as i" +
+            " where i.is_available = true" +
+            " and i.search_vector @@ to_tsquery('simple', ?1)" +
+            " order by ts_rank(i.search_vector, to_tsquery('simple', ?1)) desc, i.id",
+            nativeQuery = true)
+    List<Item> getItemOnRequestFullText(String tsQuery, Pageable pageable);
+
+    @Query("select i" +
+            " from Item as i" +
+            " left join fetch i.request" +
+            " where i.id > ?1" +
+            " and i.available = true" +
+            " order by i.id")
+    List<Item> findAvailableForIndexing(Long afterId, Pageable pageable);
+
+    @Query("select i.id" +
+            " from Item as i" +
+            " where i.id > ?1" +
+            " order by i.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available," +
+            " i.request.id as requestId" +
+            " from Item as i" +
+            " where i.request.id = ?1")
+    List<ItemView> findAllByRequestId(Long requestId);
+
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available," +
+            " i.request.id as requestId" +
+            " from Item as i" +
+            " where i.request.id in ?1" +
+            " order by i.id")
+    List<ItemView> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    boolean existsByOwnerId(Long userId);
+
+    /**
+     * Все предметы владельца для выгрузки, читаются курсором порциями по fetch size.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available," +
+            " i.request.id as requestId" +
+            " from Item as i" +
+            " where i.owner.id = ?1" +
+            " order by i.id")
+    Stream<ItemView> streamByOwnerId(Long userId);
+
+    /**
+     * Загружает предмет с блокировкой строки до конца транзакции, чтобы изменения бронирований
+     * одного предмета и его сводки бронирований выполнялись по очереди.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i" +
+            " from Item as i" +
+            " where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
 
-    List<Item> findByOwnerId(Long userId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i" +
+            " from Booking as b" +
+            " join b.item as i" +
+            " where b.id = ?1")
+    Optional<Item> findByBookingIdForUpdate(Long bookingId);
+
+    @Query("select i.version as version, i.owner.id as ownerId" +
+            " from Item as i" +
+            " where i.id = ?1")
+    Optional<ItemVersionView> findVersionById(Long itemId);
+
+    @Query("select count(i) as total, max(i.id) as maxId, sum(i.version) as versionSum" +
+            " from Item as i" +
+            " where i.request.id = ?1")
+    VersionStamp getVersionStampByRequestId(Long requestId);
 }
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item.storage;
+
+import java.util.Arrays;
+
+/**
+ * Отсортированный по возрастанию список идентификаторов предметов без упаковки в Long.
+ */
+final class LongPostingList {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = new long[4];
+    private int size;
+
+    void add(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Объединяет отсортированные списки в один отсортированный список без повторов. Списки копируются
+     * в общий массив за один проход и сортируются целиком: попарное слияние копировало бы накопленный
+     * результат заново для каждого списка.
+     */
+    static long[] union(Iterable<LongPostingList> lists) {
+        int total = 0;
+        for (LongPostingList list : lists) {
+            total += list.size;
+        }
+        if (total == 0) {
+            return EMPTY;
+        }
+        long[] result = new long[total];
+        int length = 0;
+        for (LongPostingList list : lists) {
+            System.arraycopy(list.ids, 0, result, length, list.size);
+            length += list.size;
+        }
+        Arrays.sort(result);
+        int k = 1;
+        for (int i = 1; i < total; i++) {
+            if (result[i] != result[k - 1]) {
+                result[k++] = result[i];
+            }
+        }
+        return k == total ? result : Arrays.copyOf(result, k);
+    }
+
+    /**
+     * Пересекает два отсортированных списка.
+     */
+    static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[k++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
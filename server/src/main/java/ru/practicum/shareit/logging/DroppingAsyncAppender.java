@@ -0,0 +1,34 @@
+package ru.practicum.shareit.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронный appender с ограниченной очередью, который при её заполнении отбрасывает события, а не
+ * останавливает поток запроса. Отброшенные события считаются, счётчик публикуется как метрика
+ * shareit.logging.dropped. Logback создаёт appender до Spring, поэтому счётчик общий на процесс.
+ */
+public class DroppingAsyncAppender extends AsyncAppender {
+    private static final LongAdder DROPPED = new LongAdder();
+
+    public DroppingAsyncAppender() {
+        // по уровню ничего не отбрасывается заранее, только когда места в очереди нет совсем
+        setDiscardingThreshold(0);
+        setNeverBlock(true);
+    }
+
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (getRemainingCapacity() == 0) {
+            DROPPED.increment();
+            return;
+        }
+        super.append(event);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public MeterBinder droppedLogEventsMetrics() {
+        return registry -> FunctionCounter.builder("shareit.logging.dropped", DroppingAsyncAppender.class,
+                        appender -> DroppingAsyncAppender.getDroppedCount())
+                .description("События лога, отброшенные из-за заполненной очереди асинхронного appender")
+                .register(registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty("shareit.logging.slow-query.threshold")
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(
+            @Value("${shareit.logging.slow-query.threshold}") Duration threshold,
+            @Value("${shareit.logging.slow-query.sample-rate:1.0}") double sampleRate) {
+        return new BeanPostProcessor() {
+            // оборачивается только основной бин: при маршрутизации по репликам он покрывает все источники
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource((DataSource) bean, threshold, sampleRate);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пишет в лог SQL-запросы, выполнявшиеся дольше порога, вместе со значениями параметров. Быстрые запросы
+ * в лог не попадают вовсе, а из медленных записывается доля sampleRate, чтобы при деградации базы лог
+ * не стал узким местом сам.
+ */
+@Slf4j
+public class SlowQueryDataSource extends DelegatingDataSource {
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    public SlowQueryDataSource(DataSource dataSource, Duration threshold, double sampleRate) {
+        super(dataSource);
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(connection, method, args);
+            Class<?> type = method.getReturnType();
+            if (result == null || !Statement.class.isAssignableFrom(type)) {
+                return result;
+            }
+            // у prepareStatement и prepareCall текст запроса известен сразу, у createStatement — при execute
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, sql));
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long started = System.nanoTime();
+                try {
+                    return invokeTarget(statement, method, args);
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    if (elapsed >= thresholdNanos && sampled()) {
+                        log.warn("Медленный SQL-запрос, {} мс: {}; параметры: {}",
+                                TimeUnit.NANOSECONDS.toMillis(elapsed), sql(args), parameters);
+                    }
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+            return invokeTarget(statement, method, args);
+        }
+
+        private Object sql(Object[] args) {
+            if (sql != null || args == null || args.length == 0) {
+                return sql;
+            }
+            return args[0];
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class HandlerSqlStats {
+    long requests;
+
+    long statements;
+
+    long maxStatements;
+
+    double dbTimeMillis;
+
+    int budget;
+
+    long budgetExceeded;
+}
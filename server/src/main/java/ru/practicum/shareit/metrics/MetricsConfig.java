@@ -0,0 +1,50 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class MetricsConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public SqlStatistics sqlStatistics() {
+        return new SqlStatistics();
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatistics sqlStatistics) {
+        return new SqlStatsEndpoint(sqlStatistics);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimeListener.class.getName());
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer sqlMetricsConfigurer(SqlStatementCounter sqlStatementCounter, SqlBudgetProperties budgets,
+                                                 SqlStatistics sqlStatistics, MeterRegistry registry) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry interceptors) {
+                interceptors.addInterceptor(new SqlMetricsInterceptor(sqlStatementCounter, budgets, sqlStatistics,
+                        registry));
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Таймеры вокруг методов сервисов (shareit.service) и хранилищ (shareit.storage).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+    private static final String BASE_PACKAGE = "ru.practicum.shareit";
+
+    // значение state приходит от пользователя, поэтому в тег попадают только известные состояния
+    private static final Set<String> STATES = Set.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED");
+
+    private final MeterRegistry registry;
+
+    private final Map<Class<?>, String> storageNames = new ConcurrentHashMap<>();
+
+    @Around("execution(public * ru.practicum.shareit..service.*ServiceImpl.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        return record(Timer.builder("shareit.service")
+                .tag("service", signature.getDeclaringType().getSimpleName())
+                .tag("method", signature.getName())
+                .tag("state", state(signature, joinPoint.getArgs())), joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(Timer.builder("shareit.storage")
+                .tag("storage", storageName(joinPoint.getTarget().getClass()))
+                .tag("method", joinPoint.getSignature().getName()), joinPoint);
+    }
+
+    private Object record(Timer.Builder timer, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timer.tag("exception", exception).register(registry));
+        }
+    }
+
+    private static String state(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        if (names == null) {
+            return "none";
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals("state")) {
+                return args[i] instanceof String && STATES.contains(args[i]) ? (String) args[i] : "OTHER";
+            }
+        }
+        return "none";
+    }
+
+    private String storageName(Class<?> repositoryClass) {
+        return storageNames.computeIfAbsent(repositoryClass, type -> Arrays.stream(type.getInterfaces())
+                .filter(face -> face.getName().startsWith(BASE_PACKAGE))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(type.getSimpleName()));
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.metrics;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String handler, int budget) {
+        super("Обработчик " + handler + " превысил бюджет в " + budget + " SQL-запросов");
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Бюджеты SQL-запросов на один HTTP-запрос. Обработчик задаётся как "Контроллер.метод", например
+ * shareit.sql.budget.endpoints[ItemController.getItemsUser]=5.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.sql.budget")
+public class SqlBudgetProperties {
+    private int defaultStatements = 20;
+
+    // отрицательное значение снимает ограничение, например для пакетной загрузки
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    // запрос сверх бюджета завершается ошибкой, а не только предупреждением в логе
+    private boolean strict = false;
+
+    public int budgetFor(String handler) {
+        return endpoints.getOrDefault(handler, defaultStatements);
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Записывает число и время SQL-запросов, выполненных за один HTTP-запрос, с разбивкой по эндпоинтам.
+ * Рост значения для эндпоинта обычно означает появившуюся проблему N+1, поэтому превышение бюджета
+ * из {@link SqlBudgetProperties} попадает в лог и в метрику, а в строгом режиме прерывает запрос.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlMetricsInterceptor implements HandlerInterceptor {
+    private final SqlStatementCounter sqlStatementCounter;
+    private final SqlBudgetProperties budgets;
+    private final SqlStatistics statistics;
+    private final MeterRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlStatementCounter.reset();
+        if (budgets.isStrict()) {
+            String handlerName = handlerName(handler);
+            sqlStatementCounter.limit(handlerName, budgets.budgetFor(handlerName));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int statements = sqlStatementCounter.get();
+        long dbTimeNanos = sqlStatementCounter.getDbTimeNanos();
+        // лимит снимается сразу: поток дальше может выполнять запросы вне HTTP, например в тестах с MockMvc
+        sqlStatementCounter.reset();
+
+        String handlerName = handlerName(handler);
+        int budget = budgets.budgetFor(handlerName);
+        boolean exceeded = budget >= 0 && statements > budget;
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(),
+                "uri", pattern == null ? "UNKNOWN" : pattern.toString(),
+                "handler", handlerName);
+        DistributionSummary.builder("shareit.http.sql.statements")
+                .description("Число SQL-запросов на один HTTP-запрос")
+                .tags(tags)
+                .register(registry)
+                .record(statements);
+        Timer.builder("shareit.http.sql.time")
+                .description("Время выполнения SQL-запросов за один HTTP-запрос")
+                .tags(tags)
+                .register(registry)
+                .record(dbTimeNanos, TimeUnit.NANOSECONDS);
+        if (exceeded) {
+            log.warn("{} {} ({}) выполнил {} SQL-запросов при бюджете {}", request.getMethod(), pattern,
+                    handlerName, statements, budget);
+            Counter.builder("shareit.http.sql.budget.exceeded")
+                    .description("HTTP-запросы, превысившие бюджет SQL-запросов")
+                    .tags(tags)
+                    .register(registry)
+                    .increment();
+        }
+        statistics.record(handlerName, statements, dbTimeNanos, budget, exceeded);
+    }
+
+    private static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "UNKNOWN";
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы, подготовленные Hibernate в текущем потоке, и время их выполнения в базе. Счётчик
+ * сбрасывается в начале каждого HTTP-запроса в {@link SqlMetricsInterceptor}. Если на запрос установлен
+ * лимит, первый запрос сверх него не выполняется.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    // время добавляет SqlTimeListener, которого Hibernate создаёт сам для каждой сессии
+    private static final ThreadLocal<Usage> USAGE = ThreadLocal.withInitial(Usage::new);
+
+    static void addDbTime(long nanos) {
+        USAGE.get().dbTimeNanos += nanos;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Usage usage = USAGE.get();
+        usage.statements++;
+        if (usage.limit >= 0 && usage.statements > usage.limit) {
+            throw new SqlBudgetExceededException(usage.handler, usage.limit);
+        }
+        return sql;
+    }
+
+    public void reset() {
+        Usage usage = USAGE.get();
+        usage.statements = 0;
+        usage.dbTimeNanos = 0;
+        usage.handler = null;
+        usage.limit = -1;
+    }
+
+    public void limit(String handler, int limit) {
+        Usage usage = USAGE.get();
+        usage.handler = handler;
+        usage.limit = limit;
+    }
+
+    public int get() {
+        return USAGE.get().statements;
+    }
+
+    public long getDbTimeNanos() {
+        return USAGE.get().dbTimeNanos;
+    }
+
+    private static class Usage {
+        private int statements;
+        private long dbTimeNanos;
+        private String handler;
+        private int limit = -1;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Накопленная с запуска статистика SQL-запросов по обработчикам HTTP-запросов.
+ */
+public class SqlStatistics {
+    private final Map<String, Accumulator> handlers = new ConcurrentHashMap<>();
+
+    public void record(String handler, int statements, long dbTimeNanos, int budget, boolean exceeded) {
+        Accumulator accumulator = handlers.computeIfAbsent(handler, key -> new Accumulator());
+        accumulator.requests.increment();
+        accumulator.statements.add(statements);
+        accumulator.maxStatements.accumulate(statements);
+        accumulator.dbTimeNanos.add(dbTimeNanos);
+        accumulator.budget = budget;
+        if (exceeded) {
+            accumulator.budgetExceeded.increment();
+        }
+    }
+
+    public Map<String, HandlerSqlStats> snapshot() {
+        Map<String, HandlerSqlStats> snapshot = new TreeMap<>();
+        handlers.forEach((handler, accumulator) -> snapshot.put(handler, HandlerSqlStats.builder()
+                .requests(accumulator.requests.sum())
+                .statements(accumulator.statements.sum())
+                .maxStatements(accumulator.maxStatements.get())
+                .dbTimeMillis(accumulator.dbTimeNanos.sum() / 1_000_000.0)
+                .budget(accumulator.budget)
+                .budgetExceeded(accumulator.budgetExceeded.sum())
+                .build()));
+        return snapshot;
+    }
+
+    private static class Accumulator {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder dbTimeNanos = new LongAdder();
+        private final LongAdder budgetExceeded = new LongAdder();
+        private volatile int budget;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * /actuator/sqlstats: число и время SQL-запросов по обработчикам, бюджет и сколько раз он был превышен.
+ */
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+    private final SqlStatistics statistics;
+
+    @ReadOperation
+    public Map<String, HandlerSqlStats> sqlStats() {
+        return statistics.snapshot();
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Добавляет время выполнения JDBC-запросов сессии к счётчику текущего потока.
+ */
+public class SqlTimeListener extends BaseSessionEventListener {
+    private long started;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementCounter.addDbTime(System.nanoTime() - started);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementCounter.addDbTime(System.nanoTime() - started);
+    }
+}
@@ -2,11 +2,13 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * TODO Sprint add-item-requests.
@@ -25,8 +27,12 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestWithAnswersDto> getRequestOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestService.getRequestOwner(userId);
+    public List<ItemRequestWithAnswersDto> getRequestOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam(required = false, defaultValue = "0")
+                                                           Integer from,
+                                                           @RequestParam(required = false, defaultValue = "10")
+                                                           Integer size) {
+        return itemRequestService.getRequestOwner(userId, from, size);
     }
 
     @GetMapping("/all")
@@ -39,7 +45,11 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestWithAnswersDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @PathVariable Long requestId) {
+                                             @PathVariable Long requestId, WebRequest request) {
+        Optional<String> eTag = itemRequestService.getETag(userId, requestId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         return itemRequestService.getById(userId, requestId);
     }
     //POST /requests — добавить новый запрос вещи. Основная часть запроса — текст запроса, где пользователь описывает,
@@ -17,8 +17,9 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemRequestMapper {
 
-    public static ItemRequest toItemRequest(@NotNull User user, @NotNull ItemRequestDto itemRequestDto) {
-        LocalDateTime created = itemRequestDto.getCreated() != null ? itemRequestDto.getCreated() : LocalDateTime.now();
+    public static ItemRequest toItemRequest(@NotNull User user, @NotNull ItemRequestDto itemRequestDto,
+                                            @NotNull LocalDateTime timeNow) {
+        LocalDateTime created = itemRequestDto.getCreated() != null ? itemRequestDto.getCreated() : timeNow;
 
         return ItemRequest.builder()
                 .id(itemRequestDto.getId())
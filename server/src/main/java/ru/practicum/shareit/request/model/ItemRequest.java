@@ -21,7 +21,8 @@ import java.time.LocalDateTime;
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_id_seq")
+    @SequenceGenerator(name = "requests_id_seq", sequenceName = "requests_id_seq", allocationSize = 50)
     Long id;
 
     @Column(name = "description", nullable = false)
@@ -34,4 +35,8 @@ public class ItemRequest {
     @Column(name = "created", nullable = false)
     LocalDateTime created;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    long version;
+
 }
\ No newline at end of file
@@ -4,14 +4,17 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithAnswersDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
     ItemRequestDto create(Long userId, ItemRequestDto itemRequestDto);
 
-    List<ItemRequestWithAnswersDto> getRequestOwner(Long userId);
+    List<ItemRequestWithAnswersDto> getRequestOwner(Long userId, Integer from, Integer size);
 
     List<ItemRequestWithAnswersDto> get(Long userId, Integer from, Integer size);
 
     ItemRequestWithAnswersDto getById(Long userId, Long requestId);
+
+    Optional<String> getETag(Long userId, Long requestId);
 }
@@ -5,8 +5,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemView;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.storage.ItemStorage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -15,10 +18,17 @@ import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestStorage;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.KnownUserIds;
 import ru.practicum.shareit.user.storage.UserStorage;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,39 +37,39 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestStorage itemRequestStorage;
     private final ItemStorage itemStorage;
     private final UserStorage userStorage;
+    private final KnownUserIds knownUserIds;
+    private final Clock clock;
 
     @Override
     public ItemRequestDto create(Long userId, ItemRequestDto itemRequestDto) {
         User user = userStorage.findById(userId).orElseThrow(() ->
                 new NotFoundException("Пользователь с id " + userId + " не найден"));
 
-        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(user, itemRequestDto);
+        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(user, itemRequestDto, LocalDateTime.now(clock));
         return ItemRequestMapper.toItemRequestDto(itemRequestStorage.save(itemRequest));
     }
 
     @Override
-    public List<ItemRequestWithAnswersDto> getRequestOwner(Long userId) {
-        if (!userStorage.existsById(userId)) {
+    public List<ItemRequestWithAnswersDto> getRequestOwner(Long userId, Integer from, Integer size) {
+        if (!knownUserIds.exists(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
+        checkPagination(from, size);
 
-        List<ItemRequest> itemRequestList = itemRequestStorage.findAllByRequesterIdOrderByCreatedDesc(userId);
+        Pageable sortedByCreatedDesc =
+                PageRequest.of(from / size, size, Sort.by("created").descending());
+
+        List<ItemRequest> itemRequestList = itemRequestStorage.findAllByRequesterId(userId, sortedByCreatedDesc);
 
         return createItemRequestWithAnswersDtoList(itemRequestList);
     }
 
     @Override
     public List<ItemRequestWithAnswersDto> get(Long userId, Integer from, Integer size) {
-        if (!userStorage.existsById(userId)) {
+        if (!knownUserIds.exists(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
-        if (from < 0) {
-            throw new IllegalArgumentException("from не может быть меньше 0");
-        }
-
-        if (size < 1) {
-            throw new IllegalArgumentException("size не может быть меньше 1");
-        }
+        checkPagination(from, size);
 
         Pageable sortedByCreatedDesc =
                 PageRequest.of(from, size, Sort.by("created").descending());
@@ -72,24 +82,61 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestWithAnswersDto getById(Long userId, Long requestId) {
-        if (!userStorage.existsById(userId)) {
+        if (!knownUserIds.exists(userId)) {
             throw new NotFoundException("Пользователь с id " + userId + " не найден");
         }
 
         ItemRequest itemRequest = itemRequestStorage.findById(requestId).orElseThrow(
                 () -> new NotFoundException("Запрос с id " + requestId + " не найден"));
 
-        List<ItemDto> answers = ItemMapper.toItemDtoList(itemStorage.findAllByRequestId(itemRequest.getId()));
+        List<ItemDto> answers = itemStorage.findAllByRequestId(itemRequest.getId()).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
         return ItemRequestMapper.toItemRequestWithAnswersDto(itemRequest, answers);
     }
 
+    /**
+     * ETag ответа {@link #getById}: учитывает версию запроса и версии вещей, созданных в ответ на него.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getETag(Long userId, Long requestId) {
+        if (!knownUserIds.exists(userId)) {
+            return Optional.empty();
+        }
+        return itemRequestStorage.findVersionById(requestId).map(version ->
+                ETags.of("request", requestId, version, itemStorage.getVersionStampByRequestId(requestId)));
+    }
+
     public List<ItemRequestWithAnswersDto> createItemRequestWithAnswersDtoList(List<ItemRequest> itemRequestList) {
         List<ItemRequestWithAnswersDto> result = new ArrayList<>();
 
+        if (itemRequestList.isEmpty()) {
+            return result;
+        }
+
+        List<Long> requestIds = itemRequestList.stream().map(ItemRequest::getId).collect(Collectors.toList());
+
+        Map<Long, List<ItemDto>> answers = new HashMap<>();
+        for (ItemView item : itemStorage.findAllByRequestIdIn(requestIds)) {
+            answers.computeIfAbsent(item.getRequestId(), id -> new ArrayList<>())
+                    .add(ItemMapper.toItemDto(item));
+        }
+
         for (ItemRequest itemRequest : itemRequestList) {
-            List<ItemDto> answers = ItemMapper.toItemDtoList(itemStorage.findAllByRequestId(itemRequest.getId()));
-            result.add(ItemRequestMapper.toItemRequestWithAnswersDto(itemRequest, answers));
+            result.add(ItemRequestMapper.toItemRequestWithAnswersDto(itemRequest,
+                    answers.getOrDefault(itemRequest.getId(), new ArrayList<>())));
         }
         return result;
     }
+
+    private void checkPagination(Integer from, Integer size) {
+        if (from < 0) {
+            throw new IllegalArgumentException("from не может быть меньше 0");
+        }
+
+        if (size < 1) {
+            throw new IllegalArgumentException("size не может быть меньше 1");
+        }
+    }
 }
@@ -2,15 +2,25 @@ package ru.practicum.shareit.request.storage;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestStorage extends JpaRepository<ItemRequest, Long>,
         PagingAndSortingRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long userId);
+    @Query("select r" +
+            " from ItemRequest as r" +
+            " where r.requester.id = ?1")
+    List<ItemRequest> findAllByRequesterId(Long userId, Pageable pageable);
 
     List<ItemRequest> findAllByRequesterIdNot(Long userId, Pageable pageable);
+
+    @Query("select r.version" +
+            " from ItemRequest as r" +
+            " where r.id = ?1")
+    Optional<Long> findVersionById(Long requestId);
 }
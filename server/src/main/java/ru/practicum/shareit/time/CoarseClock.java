@@ -0,0 +1,54 @@
+package ru.practicum.shareit.time;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Текущее время с точностью до resolution для списков бронирований и предметов. Значение пересчитывается
+ * не чаще раза за resolution, а одинаковое «сейчас» у запросов в пределах этого окна делает их выборки
+ * согласованными между собой. Там, где важна точная граница (создание, отзывы), используется {@link Clock}.
+ */
+@Component
+public class CoarseClock {
+    private final Clock clock;
+    private final long resolutionMillis;
+
+    private volatile Tick tick;
+
+    public CoarseClock(Clock clock, @Value("${shareit.time.coarse-resolution:1s}") Duration resolution) {
+        this.clock = clock;
+        this.resolutionMillis = resolution.toMillis();
+    }
+
+    public LocalDateTime now() {
+        if (resolutionMillis <= 0) {
+            return LocalDateTime.now(clock);
+        }
+        long millis = clock.millis();
+        Tick current = tick;
+        // часы могли уйти назад (перевод или подмена в тестах), тогда старое значение тоже не годится
+        if (current == null || millis >= current.expiresAt || millis < current.issuedAt) {
+            current = new Tick(millis, millis + resolutionMillis,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone()));
+            tick = current;
+        }
+        return current.now;
+    }
+
+    private static final class Tick {
+        private final long issuedAt;
+        private final long expiresAt;
+        private final LocalDateTime now;
+
+        private Tick(long issuedAt, long expiresAt, LocalDateTime now) {
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+            this.now = now;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.time;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Единые часы сервера. Время бронирований хранится и сравнивается в UTC, поэтому результат не зависит
+ * от часового пояса машины, на которой запущен сервер. В тестах часы подменяются фиксированными.
+ */
+@Configuration
+public class TimeConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
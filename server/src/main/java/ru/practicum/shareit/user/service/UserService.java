@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserService {
     UserDto create(UserDto userDto);
@@ -14,4 +15,6 @@ public interface UserService {
     List<UserDto> getUsers();
 
     void deleteById(Long userId);
+
+    Optional<String> getETag(Long userId);
 }
@@ -4,20 +4,30 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.config.EntityCacheVersions;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exception.AlreadyExistsException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.KnownUserIds;
 import ru.practicum.shareit.user.storage.UserStorage;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class UserServiceImpl implements UserService {
     private final UserStorage userStorage;
+    private final KnownUserIds knownUserIds;
+    private final BookingStorage bookingStorage;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final EntityCacheVersions entityCacheVersions;
 
     @Override
     public UserDto create(UserDto userDto) {
@@ -61,6 +71,15 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<String> getETag(Long userId) {
+        return userStorage.findVersionById(userId).map(version -> {
+            entityCacheVersions.evictIfStale(User.class, userId, version);
+            return ETags.of("user", userId, version);
+        });
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<UserDto> getUsers() {
@@ -69,6 +88,13 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteById(Long userId) {
+        // ссылки сводок на удалённые каскадом бронирования база обнулит, а пересчитать их нужно самим
+        List<Long> bookedItemIds = bookingStorage.findBookedItemIdsByBookerId(userId);
         userStorage.deleteById(userId);
+        userStorage.flush();
+        for (Long itemId : bookedItemIds) {
+            itemBookingSummaryService.refresh(itemId);
+        }
+        knownUserIds.remove(userId);
     }
 }
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Id существующих пользователей. Почти каждый запрос проверяет заголовок X-Sharer-User-Id, и после первой
+ * успешной проверки повторные обходятся без запроса к базе. Запоминаются только найденные id, поэтому новый
+ * пользователь виден сразу, а удалённый нужно явно исключить через {@link #remove}. Удаление на другом
+ * экземпляре сервера сюда не доходит, поэтому записи живут не дольше ttl кэша сущностей.
+ */
+@Component
+public class KnownUserIds {
+    private final UserStorage userStorage;
+    private final Cache<Long, Boolean> userIds;
+
+    public KnownUserIds(UserStorage userStorage,
+                        @Value("${shareit.cache.known-users.max-size:100000}") long maxSize,
+                        @Value("${shareit.cache.entity.ttl:10m}") Duration ttl) {
+        this.userStorage = userStorage;
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean exists(Long userId) {
+        if (userIds.getIfPresent(userId) != null) {
+            return true;
+        }
+        boolean exists = userStorage.existsById(userId);
+        if (exists) {
+            userIds.put(userId, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    /**
+     * Исключает пользователя сразу и ещё раз после коммита: проверка, выполненная параллельно до коммита
+     * удаления, могла успеть вернуть id в набор.
+     */
+    public void remove(Long userId) {
+        userIds.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userIds.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package ru.practicum.shareit.user.storage;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Optional;
+
 public interface UserStorage extends JpaRepository<User, Long> {
+
+    @Query("select u.version" +
+            " from User as u" +
+            " where u.id = ?1")
+    Optional<Long> findVersionById(Long userId);
 }
@@ -0,0 +1,25 @@
+-- Последнее начавшееся и ближайшее будущее бронирование предмета (отклонённые не учитываются).
+-- rolls_at - начало ближайшего бронирования: после него сводку нужно пересчитать.
+CREATE TABLE item_booking_summary (
+  item_id BIGINT NOT NULL,
+  last_booking_id BIGINT REFERENCES bookings (id) ON DELETE SET NULL,
+  next_booking_id BIGINT REFERENCES bookings (id) ON DELETE SET NULL,
+  rolls_at TIMESTAMP WITH TIME ZONE,
+  CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id),
+  CONSTRAINT fk_item_booking_summary_item FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_item_booking_summary_rolls_at ON item_booking_summary (rolls_at);
+
+INSERT INTO item_booking_summary (item_id, last_booking_id, next_booking_id, rolls_at)
+SELECT i.id,
+       (SELECT l.id FROM bookings l
+        WHERE l.item_id = i.id AND l.status <> 'REJECTED' AND l.start_date <= CURRENT_TIMESTAMP
+        ORDER BY l.start_date DESC, l.id LIMIT 1),
+       (SELECT n.id FROM bookings n
+        WHERE n.item_id = i.id AND n.status <> 'REJECTED' AND n.start_date > CURRENT_TIMESTAMP
+        ORDER BY n.start_date, n.id LIMIT 1),
+       (SELECT MIN(n.start_date) FROM bookings n
+        WHERE n.item_id = i.id AND n.status <> 'REJECTED' AND n.start_date > CURRENT_TIMESTAMP)
+FROM items i
+WHERE EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = i.id);
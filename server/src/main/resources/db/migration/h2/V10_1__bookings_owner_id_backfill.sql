@@ -0,0 +1 @@
+UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id);
@@ -0,0 +1,4 @@
+-- Владелец предмета дублируется в бронированиях, чтобы выборки владельца не соединяли bookings с items
+ALTER TABLE bookings ADD COLUMN owner_id BIGINT REFERENCES users (id) ON DELETE CASCADE;
+
+-- существующие строки заполняет V10_1
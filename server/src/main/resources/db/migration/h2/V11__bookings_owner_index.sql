@@ -0,0 +1 @@
+CREATE INDEX idx_bookings_owner_start ON bookings (owner_id, start_date DESC, id DESC);
@@ -0,0 +1,6 @@
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date, id);
+CREATE INDEX idx_items_owner ON items (owner_id, id);
+CREATE INDEX idx_items_request ON items (request_id);
+CREATE INDEX idx_comments_item ON comments (item_id);
+CREATE INDEX idx_requests_requester_created ON requests (requester_id, created);
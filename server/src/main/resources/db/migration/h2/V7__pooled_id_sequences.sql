@@ -0,0 +1,6 @@
+-- Последовательности столбцов IDENTITY в H2 получают системные имена, поэтому для Hibernate заводятся
+-- отдельные с теми же именами, что и в PostgreSQL. База H2 создаётся пустой, начинать можно с единицы.
+CREATE SEQUENCE requests_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE items_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE bookings_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_id_seq START WITH 1 INCREMENT BY 50;
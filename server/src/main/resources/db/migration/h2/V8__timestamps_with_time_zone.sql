@@ -0,0 +1,4 @@
+ALTER TABLE bookings ALTER COLUMN start_date SET DATA TYPE TIMESTAMP WITH TIME ZONE;
+ALTER TABLE bookings ALTER COLUMN end_date SET DATA TYPE TIMESTAMP WITH TIME ZONE;
+ALTER TABLE comments ALTER COLUMN created SET DATA TYPE TIMESTAMP WITH TIME ZONE;
+ALTER TABLE requests ALTER COLUMN created SET DATA TYPE TIMESTAMP WITH TIME ZONE;
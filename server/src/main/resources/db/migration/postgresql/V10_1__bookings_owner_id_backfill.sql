@@ -0,0 +1,22 @@
+-- Заполнение bookings.owner_id порциями по id, каждая в своей транзакции: одно UPDATE по всей таблице
+-- держало бы блокировки всех строк до конца миграции. Индекс по owner_id строится после, в V11.
+DO $$
+DECLARE
+  last_id BIGINT := 0;
+  batch_end BIGINT;
+BEGIN
+  LOOP
+    SELECT max(id) INTO batch_end
+    FROM (SELECT id FROM bookings WHERE id > last_id ORDER BY id LIMIT 5000) AS batch;
+    EXIT WHEN batch_end IS NULL;
+
+    UPDATE bookings b
+    SET owner_id = i.owner_id
+    FROM items i
+    WHERE i.id = b.item_id AND b.id > last_id AND b.id <= batch_end AND b.owner_id IS NULL;
+    COMMIT;
+
+    last_id := batch_end;
+  END LOOP;
+END;
+$$;
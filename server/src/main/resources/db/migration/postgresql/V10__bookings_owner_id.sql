@@ -0,0 +1,28 @@
+-- Владелец предмета дублируется в бронированиях, чтобы выборки владельца не соединяли bookings с items
+ALTER TABLE bookings ADD COLUMN owner_id BIGINT REFERENCES users (id) ON DELETE CASCADE;
+
+-- bookings.owner_id следует за владельцем предмета, даже если строки меняются в обход сервера. Триггеры
+-- ставятся в одной транзакции с колонкой: строки, вставленные во время порционного заполнения в V10_1,
+-- сразу получают владельца.
+CREATE OR REPLACE FUNCTION bookings_copy_item_owner() RETURNS trigger AS $$
+BEGIN
+  NEW.owner_id := (SELECT i.owner_id FROM items i WHERE i.id = NEW.item_id);
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_bookings_copy_item_owner
+  BEFORE INSERT OR UPDATE OF item_id ON bookings
+  FOR EACH ROW EXECUTE FUNCTION bookings_copy_item_owner();
+
+CREATE OR REPLACE FUNCTION items_propagate_owner() RETURNS trigger AS $$
+BEGIN
+  UPDATE bookings SET owner_id = NEW.owner_id WHERE item_id = NEW.id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_items_propagate_owner
+  AFTER UPDATE OF owner_id ON items
+  FOR EACH ROW WHEN (OLD.owner_id IS DISTINCT FROM NEW.owner_id)
+  EXECUTE FUNCTION items_propagate_owner();
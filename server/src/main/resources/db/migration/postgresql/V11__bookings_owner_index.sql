@@ -0,0 +1 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date DESC, id DESC);
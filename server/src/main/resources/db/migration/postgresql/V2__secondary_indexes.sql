@@ -0,0 +1,6 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_owner ON items (owner_id, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_request ON items (request_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_item ON comments (item_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_requests_requester_created ON requests (requester_id, created);
@@ -0,0 +1,21 @@
+-- Заполнение search_vector у строк, созданных до триггера. Каждая порция коммитится отдельно, поэтому
+-- блокировки строк держатся недолго; скрипт выполняется вне транзакции, см. .conf рядом.
+DO $$
+DECLARE
+  last_id BIGINT := 0;
+  batch_end BIGINT;
+BEGIN
+  LOOP
+    SELECT max(id) INTO batch_end
+    FROM (SELECT id FROM items WHERE id > last_id ORDER BY id LIMIT 5000) AS batch;
+    EXIT WHEN batch_end IS NULL;
+
+    UPDATE items
+    SET search_vector = items_search_vector(name, description)
+    WHERE id > last_id AND id <= batch_end AND search_vector IS NULL;
+    COMMIT;
+
+    last_id := batch_end;
+  END LOOP;
+END;
+$$;
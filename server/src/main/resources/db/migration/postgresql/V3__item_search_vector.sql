@@ -0,0 +1,20 @@
+-- Обычный столбец вместо GENERATED ... STORED: добавление генерируемого столбца переписывает всю таблицу
+-- под ACCESS EXCLUSIVE. Новые и изменённые строки заполняет триггер, существующие — V3_1 порциями.
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION items_search_vector(name VARCHAR, description VARCHAR) RETURNS tsvector AS $$
+  SELECT setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B');
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION items_fill_search_vector() RETURNS trigger AS $$
+BEGIN
+  NEW.search_vector := items_search_vector(NEW.name, NEW.description);
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_items_fill_search_vector
+  BEFORE INSERT OR UPDATE OF name, description ON items
+  FOR EACH ROW EXECUTE FUNCTION items_fill_search_vector();
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
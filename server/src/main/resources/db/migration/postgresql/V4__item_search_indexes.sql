@@ -0,0 +1,3 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_search_vector ON items USING gin (search_vector);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops);
@@ -0,0 +1,41 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Ограничение не создастся, если в таблице уже есть пересекающиеся подтверждённые бронирования. Из каждой
+-- такой пары остаётся подтверждённым более раннее, более позднее отклоняется; отклонённые id пишутся
+-- в журнал миграции предупреждениями.
+DO $$
+DECLARE
+  b RECORD;
+BEGIN
+  FOR b IN
+    SELECT id, item_id, start_date, end_date
+    FROM bookings AS later
+    WHERE status = 'APPROVED'
+      AND EXISTS (SELECT 1
+                  FROM bookings AS earlier
+                  WHERE earlier.status = 'APPROVED'
+                    AND earlier.item_id = later.item_id
+                    AND earlier.id < later.id
+                    AND tsrange(earlier.start_date, earlier.end_date) && tsrange(later.start_date, later.end_date))
+    ORDER BY id
+  LOOP
+    -- более раннее бронирование могло быть отклонено на предыдущем шаге, поэтому пересечение проверяется заново
+    IF EXISTS (SELECT 1
+               FROM bookings AS earlier
+               WHERE earlier.status = 'APPROVED'
+                 AND earlier.item_id = b.item_id
+                 AND earlier.id < b.id
+                 AND tsrange(earlier.start_date, earlier.end_date) && tsrange(b.start_date, b.end_date)) THEN
+      UPDATE bookings SET status = 'REJECTED' WHERE id = b.id;
+      RAISE WARNING 'Бронирование % предмета % пересекается с подтверждённым ранее и отклонено', b.id, b.item_id;
+    END IF;
+  END LOOP;
+END;
+$$;
+
+-- ADD CONSTRAINT строит gist-индекс под блокировкой ACCESS EXCLUSIVE: пока индекс строится, таблица bookings
+-- недоступна ни на чтение, ни на запись. Построить индекс для EXCLUDE заранее через CONCURRENTLY
+-- PostgreSQL не позволяет, поэтому миграцию нужно проводить в окно обслуживания.
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_approved_period
+  EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+  WHERE (status = 'APPROVED');
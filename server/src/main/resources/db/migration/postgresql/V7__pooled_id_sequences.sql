@@ -0,0 +1,6 @@
+-- Hibernate берёт идентификаторы из последовательности пачками (allocationSize = 50), без этого пакетная
+-- вставка невозможна. Шаг последовательностей столбцов IDENTITY должен совпадать с размером пачки.
+ALTER TABLE requests ALTER COLUMN id SET INCREMENT BY 50;
+ALTER TABLE items ALTER COLUMN id SET INCREMENT BY 50;
+ALTER TABLE bookings ALTER COLUMN id SET INCREMENT BY 50;
+ALTER TABLE comments ALTER COLUMN id SET INCREMENT BY 50;
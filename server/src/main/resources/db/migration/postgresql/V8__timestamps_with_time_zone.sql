@@ -0,0 +1,25 @@
+-- Моменты времени хранятся как timestamptz. Старые значения записывались сервером в UTC.
+--
+-- Миграция требует простоя. ALTER COLUMN TYPE берёт ACCESS EXCLUSIVE на bookings, comments и requests
+-- и держит её до конца транзакции: за это время перестраиваются индексы по изменённым колонкам
+-- и ограничение ex_bookings_item_approved_period. Обходной путь через новую колонку, порционное заполнение
+-- и подмену простоя не убирает: ограничение EXCLUDE всё равно строится заново под той же блокировкой.
+--
+-- Время сокращено тем, что таблицы не переписываются: при часовом поясе сессии UTC и без USING
+-- PostgreSQL 12+ меняет тип timestamp на timestamptz без перезаписи строк, значения при этом
+-- читаются как UTC, что и нужно.
+SET LOCAL TIME ZONE 'UTC';
+
+ALTER TABLE bookings DROP CONSTRAINT ex_bookings_item_approved_period;
+
+ALTER TABLE bookings
+  ALTER COLUMN start_date TYPE TIMESTAMP WITH TIME ZONE,
+  ALTER COLUMN end_date TYPE TIMESTAMP WITH TIME ZONE;
+ALTER TABLE comments
+  ALTER COLUMN created TYPE TIMESTAMP WITH TIME ZONE;
+ALTER TABLE requests
+  ALTER COLUMN created TYPE TIMESTAMP WITH TIME ZONE;
+
+ALTER TABLE bookings ADD CONSTRAINT ex_bookings_item_approved_period
+  EXCLUDE USING gist (item_id WITH =, tstzrange(start_date, end_date) WITH &&)
+  WHERE (status = 'APPROVED');
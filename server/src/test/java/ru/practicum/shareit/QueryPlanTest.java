@@ -0,0 +1,306 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.booking.storage.ItemBookingSummaryStorage;
+import ru.practicum.shareit.item.storage.CommentStorage;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+import ru.practicum.shareit.request.storage.ItemRequestStorage;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Проверяет планы запросов хранилищ на заполненной базе: ни один запрос не должен читать большие таблицы
+ * целиком. Каждый метод хранилища вызывается, а план строится по SQL, перехваченному инспектором запросов.
+ * Для нового метода нужно добавить сюда его вызов либо явно внести метод в исключения.
+ */
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class QueryPlanTest {
+    private static final int USERS = 500;
+    private static final int REQUESTS = 1_000;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS = 10_000;
+    private static final int COMMENTS = 4_000;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 12, 0);
+    private static final LocalDateTime FROM = NOW.minusYears(1);
+    private static final LocalDateTime TO = NOW.plusYears(1);
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+    private static final Pageable BY_START_DESC = PageRequest.of(0, 10, Sort.by("start", "id").descending());
+    private static final List<Status> STATUSES = List.of(Status.values());
+
+    private static final List<Class<?>> STORAGES = List.of(
+            BookingStorage.class, ItemBookingSummaryStorage.class, ItemStorage.class, CommentStorage.class,
+            ItemRequestStorage.class);
+
+    // методы, которым полный просмотр таблицы нужен по смыслу
+    private static final Set<String> EXEMPT = Set.of(
+            // поиск подстроки, в PostgreSQL обслуживается триграммными индексами
+            "ItemStorage.getItemOnRequest",
+            // полнотекстовый поиск есть только в PostgreSQL
+            "ItemStorage.getItemOnRequestFullText",
+            // выборка чужих запросов по условию <> проходит по всей таблице
+            "ItemRequestStorage.findAllByRequesterIdNot");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SqlCapture sqlCapture;
+    private final BookingStorage bookingStorage;
+    private final ItemBookingSummaryStorage itemBookingSummaryStorage;
+    private final ItemStorage itemStorage;
+    private final CommentStorage commentStorage;
+    private final ItemRequestStorage itemRequestStorage;
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+        @Bean
+        @Primary
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    /**
+     * Запоминает SQL, который Hibernate передаёт инспектору запросов, — ровно то, что уходит в базу.
+     */
+    static class SqlCapture extends SqlStatementCounter {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return super.inspect(sql);
+        }
+    }
+
+    /**
+     * Вызовы методов хранилищ с правдоподобными аргументами. Проверяется SQL, который сгенерировал Hibernate.
+     */
+    private Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("BookingStorage.findAllByBookerId", () -> {
+            bookingStorage.findAllByBookerId(7L, BY_START_DESC);
+            bookingStorage.findAllByBookerId(7L);
+        });
+        queries.put("BookingStorage.findCurrentBookingsByBookerId", () ->
+                bookingStorage.findCurrentBookingsByBookerId(7L, NOW, PageRequest.of(0, 10, Sort.by("start", "id"))));
+        queries.put("BookingStorage.findByBookerIdAndEndInPast", () ->
+                bookingStorage.findByBookerIdAndEndInPast(7L, NOW, BY_START_DESC));
+        queries.put("BookingStorage.findByBookerIdAndStartInFuture", () ->
+                bookingStorage.findByBookerIdAndStartInFuture(7L, NOW, BY_START_DESC));
+        queries.put("BookingStorage.findByBookerIdAndStatusContaining", () ->
+                bookingStorage.findByBookerIdAndStatusContaining(7L, Status.WAITING, BY_START_DESC));
+        queries.put("BookingStorage.getAllBookingsForOwnersItems", () ->
+                bookingStorage.getAllBookingsForOwnersItems(7L, BY_START_DESC));
+        queries.put("BookingStorage.getCurrentBookingsForOwnersItems", () ->
+                bookingStorage.getCurrentBookingsForOwnersItems(7L, NOW, BY_START_DESC));
+        queries.put("BookingStorage.getPastBookingsForOwnersItems", () ->
+                bookingStorage.getPastBookingsForOwnersItems(7L, NOW, BY_START_DESC));
+        queries.put("BookingStorage.getFutureBookingsForOwnersItems", () ->
+                bookingStorage.getFutureBookingsForOwnersItems(7L, NOW, BY_START_DESC));
+        queries.put("BookingStorage.getBookingsForOwnersWithStatusContaining", () ->
+                bookingStorage.getBookingsForOwnersWithStatusContaining(7L, Status.WAITING, BY_START_DESC));
+        queries.put("BookingStorage.findByBookerIdBeforeCursor", () ->
+                bookingStorage.findByBookerIdBeforeCursor(7L, STATUSES, FROM, TO, FROM, TO, NOW, 5000L, PAGE));
+        queries.put("BookingStorage.findByBookerIdAfterCursor", () ->
+                bookingStorage.findByBookerIdAfterCursor(7L, STATUSES, FROM, TO, FROM, TO, NOW, 5000L, PAGE));
+        queries.put("BookingStorage.getBookingsForOwnersItemsBeforeCursor", () ->
+                bookingStorage.getBookingsForOwnersItemsBeforeCursor(7L, STATUSES, FROM, TO, FROM, TO, NOW, 5000L,
+                        PAGE));
+        queries.put("BookingStorage.streamByBookerId", () -> {
+            try (Stream<?> bookings = bookingStorage.streamByBookerId(7L)) {
+                bookings.findFirst();
+            }
+        });
+        queries.put("BookingStorage.findByItemIdOrderByStart", () -> bookingStorage.findByItemIdOrderByStart(7L));
+        queries.put("BookingStorage.findLastAndNextBookingsByItemIds", () ->
+                bookingStorage.findLastAndNextBookingsByItemIds(List.of(7L, 8L, 9L), NOW));
+        queries.put("BookingStorage.findBookedItemIdsByBookerId", () ->
+                bookingStorage.findBookedItemIdsByBookerId(7L));
+        queries.put("BookingStorage.existsByItemIdAndStatusAndStartBeforeAndEndAfter", () ->
+                bookingStorage.existsByItemIdAndStatusAndStartBeforeAndEndAfter(7L, Status.APPROVED, NOW, NOW));
+        queries.put("BookingStorage.findByBookerIdAndItemId", () -> bookingStorage.findByBookerIdAndItemId(7L, 8L));
+        queries.put("BookingStorage.findVersionsById", () -> bookingStorage.findVersionsById(7L));
+        queries.put("BookingStorage.getVersionStampByItemId", () -> bookingStorage.getVersionStampByItemId(7L));
+        queries.put("BookingStorage.countByItemIdAndStartLessThanEqual", () ->
+                bookingStorage.countByItemIdAndStartLessThanEqual(7L, NOW));
+
+        queries.put("ItemBookingSummaryStorage.findWithBookingsByItemId", () ->
+                itemBookingSummaryStorage.findWithBookingsByItemId(7L));
+        queries.put("ItemBookingSummaryStorage.findItemIdsToRollForward", () ->
+                itemBookingSummaryStorage.findItemIdsToRollForward(NOW, PageRequest.of(0, 100)));
+
+        queries.put("ItemStorage.findByOwnerIdOrderById", () ->
+                itemStorage.findByOwnerIdOrderById(7L, PageRequest.of(0, 10, Sort.by("id"))));
+        queries.put("ItemStorage.existsByOwnerId", () -> itemStorage.existsByOwnerId(7L));
+        queries.put("ItemStorage.streamByOwnerId", () -> {
+            try (Stream<?> items = itemStorage.streamByOwnerId(7L)) {
+                items.findFirst();
+            }
+        });
+        queries.put("ItemStorage.findByIdForUpdate", () -> itemStorage.findByIdForUpdate(7L));
+        queries.put("ItemStorage.findByBookingIdForUpdate", () -> itemStorage.findByBookingIdForUpdate(7L));
+        queries.put("ItemStorage.findAvailableForIndexing", () ->
+                itemStorage.findAvailableForIndexing(1500L, PageRequest.of(0, 100)));
+        queries.put("ItemStorage.findIdsAfter", () -> itemStorage.findIdsAfter(1500L, PageRequest.of(0, 500)));
+        queries.put("ItemStorage.findAllByRequestId", () -> itemStorage.findAllByRequestId(7L));
+        queries.put("ItemStorage.findAllByRequestIdIn", () -> itemStorage.findAllByRequestIdIn(List.of(7L, 8L, 9L)));
+        queries.put("ItemStorage.findVersionById", () -> itemStorage.findVersionById(7L));
+        queries.put("ItemStorage.getVersionStampByRequestId", () -> itemStorage.getVersionStampByRequestId(7L));
+
+        queries.put("CommentStorage.findByItemId", () -> commentStorage.findByItemId(7L));
+        queries.put("CommentStorage.findAllByItemIdIn", () -> commentStorage.findAllByItemIdIn(List.of(7L, 8L, 9L)));
+        queries.put("CommentStorage.getVersionStampByItemId", () -> commentStorage.getVersionStampByItemId(7L));
+
+        queries.put("ItemRequestStorage.findAllByRequesterId", () ->
+                itemRequestStorage.findAllByRequesterId(7L, PageRequest.of(0, 10, Sort.by("created").descending())));
+        queries.put("ItemRequestStorage.findVersionById", () -> itemRequestStorage.findVersionById(7L));
+        return queries;
+    }
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("select count(*) from bookings", Integer.class) > 0) {
+            return;
+        }
+        LocalDateTime base = LocalDateTime.of(2022, 1, 1, 0, 0);
+
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "User" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, name, email) values (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (long id = 1; id <= REQUESTS; id++) {
+            requests.add(new Object[]{id, "Request" + id, id % USERS + 1, Timestamp.valueOf(base.plusHours(id))});
+        }
+        jdbcTemplate.batchUpdate("insert into requests (id, description, requester_id, created) values (?, ?, ?, ?)",
+                requests);
+
+        List<Object[]> items = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Object[]{id, "Item" + id, "Description" + id, id % USERS + 1, id % 3 != 0,
+                    id % 2 == 0 ? id % REQUESTS + 1 : null});
+        }
+        jdbcTemplate.batchUpdate("insert into items (id, name, description, owner_id, is_available, request_id)" +
+                " values (?, ?, ?, ?, ?, ?)", items);
+
+        String[] statuses = {"WAITING", "APPROVED", "REJECTED", "CANCELED"};
+        List<Object[]> bookings = new ArrayList<>();
+        for (long id = 1; id <= BOOKINGS; id++) {
+            LocalDateTime start = base.plusHours(id);
+            long itemId = id % ITEMS + 1;
+            bookings.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)),
+                    itemId, (id * 7) % USERS + 1, statuses[(int) (id % statuses.length)], itemId % USERS + 1});
+        }
+        jdbcTemplate.batchUpdate("insert into bookings (id, start_date, end_date, item_id, booker_id, status," +
+                " owner_id) values (?, ?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (long id = 1; id <= COMMENTS; id++) {
+            comments.add(new Object[]{id, "Comment" + id, id % ITEMS + 1, (id * 3) % USERS + 1,
+                    Timestamp.valueOf(base.plusHours(id))});
+        }
+        jdbcTemplate.batchUpdate("insert into comments (id, text, item_id, author_id, created)" +
+                " values (?, ?, ?, ?, ?)", comments);
+
+        // сводки по бронированиям здесь не важны, нужны только строки с разными rolls_at
+        List<Object[]> summaries = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            summaries.add(new Object[]{id, id, Timestamp.valueOf(base.plusHours(id))});
+        }
+        jdbcTemplate.batchUpdate("insert into item_booking_summary (item_id, last_booking_id, rolls_at)" +
+                " values (?, ?, ?)", summaries);
+
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    void shouldCoverEveryStorageQuery() {
+        Map<String, Runnable> queries = queries();
+        List<String> uncovered = new ArrayList<>();
+        for (Class<?> storage : STORAGES) {
+            for (Method method : storage.getDeclaredMethods()) {
+                String name = storage.getSimpleName() + "." + method.getName();
+                if (!queries.containsKey(name) && !EXEMPT.contains(name)) {
+                    uncovered.add(name);
+                }
+            }
+        }
+        assertThat(uncovered, empty());
+    }
+
+    @Test
+    void shouldNotScanWholeTables() {
+        List<String> regressions = new ArrayList<>();
+        queries().forEach((name, query) -> {
+            sqlCapture.statements.clear();
+            transactionTemplate.executeWithoutResult(status -> query.run());
+            if (sqlCapture.statements.isEmpty()) {
+                regressions.add(name + ": запрос не дошёл до базы");
+            }
+            for (String sql : sqlCapture.statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    regressions.add(name + ":\n" + plan);
+                }
+            }
+        });
+        assertThat(regressions, empty());
+    }
+
+    /**
+     * План H2 строится при разборе запроса и от значений параметров не зависит, поэтому они остаются пустыми.
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 16;
+
+    private final BookingService bookingService;
+    private final BookingStorage bookingStorage;
+    private final UserService userService;
+    private final ItemService itemService;
+
+    @Test
+    void shouldApproveOnlyOneOfOverlappingBookings() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build()).getId();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingService.create(bookerId, BookingDto.builder()
+                    .itemId(itemId)
+                    .start(start.plusHours(i))
+                    .end(start.plusDays(1).plusHours(i))
+                    .build()).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.respondToBookingRequest(ownerId, bookingId, true);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        int approved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                approved++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(approved, is(1));
+        assertThat(bookingStorage.findAll().stream()
+                .filter(booking -> booking.getStatus() == Status.APPROVED)
+                .count(), is(1L));
+    }
+
+    @Test
+    void shouldRejectRepeatedApprovalOfSameBooking() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build()).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingService.create(bookerId, BookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusDays(1))
+                .build()).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Class<?>>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.respondToBookingRequest(ownerId, bookingId, true);
+                    return null;
+                } catch (RuntimeException e) {
+                    return e.getClass();
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        List<Class<?>> failures = new ArrayList<>();
+        for (Future<Class<?>> result : results) {
+            Class<?> failure = result.get(30, TimeUnit.SECONDS);
+            if (failure != null) {
+                failures.add(failure);
+            }
+        }
+        executor.shutdown();
+
+        // после блокировки предмета остальные запросы видят подтверждение и отвечают ошибкой валидации
+        assertThat(failures.size(), is(THREADS - 1));
+        assertThat(failures, everyItem(equalTo(ValidationException.class)));
+    }
+}
@@ -6,10 +6,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -24,6 +27,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -129,6 +133,17 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.status", is(Status.APPROVED.toString())));
     }
 
+    @Test
+    void shouldReturnConflictOnConcurrentUpdate() throws Exception {
+        when(bookingService.respondToBookingRequest(anyLong(), anyLong(), any(Boolean.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        mvc.perform(patch("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("approved", "true"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void shouldGetByUserIdAndBookingId() throws Exception {
         when(bookingService.getByUserIdAndBookingId(anyLong(), anyLong())).thenReturn(bookingForAnswerDto1);
@@ -184,4 +199,33 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id", is(bookingForAnswerDto2.getId()), Long.class))
                 .andExpect(jsonPath("$[1].id", is(bookingForAnswerDto1.getId()), Long.class));
     }
+
+    @Test
+    void shouldReturnNextCursorForFullPage() throws Exception {
+        List<BookingForAnswerDto> bookingForAnswerDtoList = new ArrayList<>();
+        bookingForAnswerDtoList.add(bookingForAnswerDto2);
+        bookingForAnswerDtoList.add(bookingForAnswerDto1);
+
+        String after = BookingCursor.of(bookingForAnswerDto2).encode();
+
+        when(bookingService.getBookingsByUserAfter(anyLong(), anyString(), eq(after), anyInt()))
+                .thenReturn(bookingForAnswerDtoList);
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "ALL")
+                        .param("size", "2")
+                        .param("after", after))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingForAnswerDto1).encode()))
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "ALL")
+                        .param("size", "3")
+                        .param("after", after))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
 }
@@ -0,0 +1,239 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingListingTest {
+    private static final int BOOKINGS = 1000;
+
+    private final MockMvc mvc;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserStorage userStorage;
+    private final ItemStorage itemStorage;
+    private final BookingStorage bookingStorage;
+    private final BookingService bookingService;
+
+    @Test
+    void shouldListOwnerBookingsByCursorWithoutLoadingEntities() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build()).getId();
+        Item item = itemStorage.findById(itemId).orElseThrow();
+
+        List<User> bookers = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            Long bookerId = userService.create(UserDto.builder()
+                    .name("Booker" + i)
+                    .email("booker" + i + "@mail.ru")
+                    .build()).getId();
+            bookers.add(userStorage.findById(bookerId).orElseThrow());
+        }
+
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS / 2);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(Booking.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .item(item)
+                    .booker(bookers.get(i % bookers.size()))
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        bookingStorage.saveAll(bookings);
+        entityManagerFactory.getCache().evictAll();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        statistics.clear();
+        String offsetPage = mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("from", "0")
+                        .param("size", String.valueOf(BOOKINGS)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long offsetBookingLoads = statistics.getEntityStatistics(Booking.class.getName()).getLoadCount();
+
+        statistics.clear();
+        String after = new BookingCursor(start.plusYears(10), Long.MAX_VALUE).encode();
+        String cursorPage = mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("after", after)
+                        .param("size", String.valueOf(BOOKINGS)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long cursorStatements = statistics.getPrepareStatementCount();
+        long cursorBookingLoads = statistics.getEntityStatistics(Booking.class.getName()).getLoadCount();
+        long cursorUserLoads = statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(cursorPage, is(offsetPage));
+        assertThat(offsetBookingLoads, is((long) BOOKINGS));
+        // проверка наличия вещей у владельца и одна выборка страницы, бронирования и арендаторы не загружаются
+        assertThat(cursorStatements, is(2L));
+        assertThat(cursorBookingLoads, is(0L));
+        assertThat(cursorUserLoads, is(0L));
+    }
+
+    @Test
+    void shouldFetchItemAndBookerWithEveryOffsetListing() {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        List<Item> items = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Long itemId = itemService.create(ownerId, ItemDto.builder()
+                    .name("Item" + i)
+                    .description("Description" + i)
+                    .available(true)
+                    .build()).getId();
+            items.add(itemStorage.findById(itemId).orElseThrow());
+        }
+        List<User> bookers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Long bookerId = userService.create(UserDto.builder()
+                    .name("Booker" + i)
+                    .email("booker" + i + "@mail.ru")
+                    .build()).getId();
+            bookers.add(userStorage.findById(bookerId).orElseThrow());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Status[] statuses = {Status.APPROVED, Status.WAITING, Status.REJECTED};
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            LocalDateTime start = now.plusDays(i - 4);
+            bookings.add(Booking.builder()
+                    .start(start)
+                    .end(start.plusDays(2))
+                    .item(items.get(i % items.size()))
+                    .booker(bookers.get(i / items.size()))
+                    .status(statuses[i % statuses.length])
+                    .build());
+        }
+        bookingStorage.saveAll(bookings);
+        entityManagerFactory.getCache().evictAll();
+
+        Long bookerId = bookers.get(0).getId();
+        // первое обращение запоминает пользователей, дальше их проверка не ходит в базу
+        bookingService.getBookingsByUser(bookerId, "ALL", 0, 10);
+        bookingService.getBookingsForOwnersItems(ownerId, "ALL", 0, 10);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Map<String, Long> bookerStatements = new LinkedHashMap<>();
+        Map<String, Long> ownerStatements = new LinkedHashMap<>();
+        for (String state : List.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED")) {
+            statistics.clear();
+            bookingService.getBookingsByUser(bookerId, state, 0, 10);
+            bookerStatements.put(state, statistics.getPrepareStatementCount());
+
+            statistics.clear();
+            bookingService.getBookingsForOwnersItems(ownerId, state, 0, 10);
+            ownerStatements.put(state, statistics.getPrepareStatementCount());
+        }
+
+        statistics.setStatisticsEnabled(false);
+
+        // предмет и арендатор каждой строки приходят в запросе страницы, без догрузки по одному
+        assertThat(bookingService.getBookingsForOwnersItems(ownerId, "ALL", 0, 10), hasSize(9));
+        assertThat(bookerStatements.values(), everyItem(is(1L)));
+        // у владельца добавляется проверка, что ему есть что сдавать
+        assertThat(ownerStatements.values(), everyItem(is(2L)));
+    }
+
+    @Test
+    void shouldExportBookingsAsNdjson() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        Long itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build()).getId();
+        Item item = itemStorage.findById(itemId).orElseThrow();
+        User booker = userStorage.findById(bookerId).orElseThrow();
+
+        LocalDateTime start = LocalDateTime.now().minusDays(BOOKINGS / 2);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(Booking.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        bookingStorage.saveAll(bookings);
+
+        MvcResult result = mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines.length, is(BOOKINGS));
+        // порядок тот же, что и в постраничной выдаче: сначала последние
+        BookingForAnswerDto first = objectMapper.readValue(lines[0], BookingForAnswerDto.class);
+        BookingForAnswerDto last = objectMapper.readValue(lines[BOOKINGS - 1], BookingForAnswerDto.class);
+        assertThat(first.getStart().isAfter(last.getStart()), is(true));
+        assertThat(first.getItemDto().getName(), is("Дрель"));
+        assertThat(first.getBookerDto().getId(), is(bookerId));
+
+        mvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 99L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -23,6 +24,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -140,6 +142,43 @@ public class BookingServiceImplTest {
                         + " уже установлен статус возможности бронирования");
     }
 
+    @Test
+    void shouldRejectBookingOverlappingApprovedOne() {
+        User user1 = createUser(1);
+        Item item = createItem(1L, user1.getId(), null);
+        User user2 = createUser(2);
+
+        Booking booking = createBooking(1L, item.getId(), user2.getId());
+        Booking overlapping = createBooking(2L, item.getId(), user2.getId());
+        overlapping.setStart(booking.getStart());
+
+        LocalDateTime from = booking.getStart().minusHours(1);
+        LocalDateTime to = booking.getEnd().plusHours(1);
+        assertThat(itemService.getAvailability(item.getId(), from, to).getAvailable(), is(true));
+
+        bookingService.respondToBookingRequest(user1.getId(), booking.getId(), true);
+
+        assertThat(itemService.getAvailability(item.getId(), from, to).getAvailable(), is(false));
+        assertThat(itemService.getAvailability(item.getId(), booking.getEnd(), to).getAvailable(), is(true));
+
+        BookingDto bookingDto = BookingDto.builder()
+                .itemId(item.getId())
+                .start(booking.getStart().plusNanos(1_000))
+                .end(booking.getEnd().plusHours(1))
+                .build();
+        assertThrows(ValidationException.class, () -> bookingService.create(user2.getId(), bookingDto),
+                "Предмет с id " + item.getId() + " уже забронирован на период с " + bookingDto.getStart()
+                        + " по " + bookingDto.getEnd());
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.respondToBookingRequest(user1.getId(), overlapping.getId(), true),
+                "Предмет с id " + item.getId() + " уже забронирован на период с " + overlapping.getStart()
+                        + " по " + overlapping.getEnd());
+
+        assertThrows(ValidationException.class, () -> itemService.getAvailability(item.getId(), to, from),
+                "Начало периода должно быть раньше его окончания");
+    }
+
     @Test
     void shouldGetByUserIdAndBookingId() {
         User user1 = createUser(1);
@@ -301,6 +340,49 @@ public class BookingServiceImplTest {
                 "Пользователь с id 3 не найден");
     }
 
+    @Test
+    void shouldGetBookingsByCursor() {
+        User user1 = createUser(1);
+        Item item = createItem(1L, user1.getId(), null);
+        User user2 = createUser(2);
+
+        for (long id = 1; id <= 5; id++) {
+            createBooking(id, item.getId(), user2.getId());
+        }
+        // ожидаемые страницы строятся по строкам из базы: курсор сравнивает время в том виде, в каком оно сохранено
+        em.flush();
+        em.clear();
+        List<BookingForAnswerDto> checkList = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            checkList.add(0, BookingMapper.toBookingForAnswerDto(em.find(Booking.class, id)));
+        }
+
+        List<BookingForAnswerDto> firstPage = bookingService.getBookingsByUser(user2.getId(), "ALL", 0, 2);
+        assertThat(firstPage, equalTo(checkList.subList(0, 2)));
+
+        String after = BookingCursor.of(firstPage.get(1)).encode();
+        List<BookingForAnswerDto> secondPage = bookingService.getBookingsByUserAfter(user2.getId(), "ALL", after, 2);
+        assertThat(secondPage, equalTo(checkList.subList(2, 4)));
+
+        after = BookingCursor.of(secondPage.get(1)).encode();
+        List<BookingForAnswerDto> lastPage = bookingService.getBookingsByUserAfter(user2.getId(), "ALL", after, 2);
+        assertThat(lastPage, equalTo(checkList.subList(4, 5)));
+
+        List<BookingForAnswerDto> ownerPage = bookingService
+                .getBookingsForOwnersItemsAfter(user1.getId(), "ALL", after, 10);
+        assertThat(ownerPage, equalTo(checkList.subList(4, 5)));
+
+        List<BookingForAnswerDto> waitingPage = bookingService
+                .getBookingsByUserAfter(user2.getId(), "WAITING", BookingCursor.of(checkList.get(0)).encode(), 10);
+        assertThat(waitingPage, equalTo(checkList.subList(1, 5)));
+
+        assertThat(bookingService.getBookingsByUserAfter(user2.getId(), "UNKNOWN", after, 2), empty());
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.getBookingsByUserAfter(user2.getId(), "ALL", "not a cursor", 2),
+                "Некорректный курсор страницы: not a cursor");
+    }
+
     public User createUser(int id) {
         UserDto userDto = UserDto.builder()
                 .name("User" + id)
@@ -330,13 +412,15 @@ public class BookingServiceImplTest {
     }
 
     public Booking createBooking(Long bookingId, Long itemId, Long userId) {
+        // база хранит время с точностью до микросекунд, а LocalDateTime.now() на JDK 15+ даёт наносекунды
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         BookingDto bookingDto = BookingDto.builder()
                 .id(bookingId)
                 .itemId(itemId)
                 .bookerId(userId)
                 .status(Status.WAITING)
-                .start(LocalDateTime.now().plusSeconds(bookingId))
-                .end(LocalDateTime.now().plusSeconds(bookingId + 1))
+                .start(now.plusSeconds(bookingId))
+                .end(now.plusSeconds(bookingId + 1))
                 .build();
 
         bookingService.create(userId, bookingDto);
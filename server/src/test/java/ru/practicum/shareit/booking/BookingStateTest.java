@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingForAnswerDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingStateTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 15, 12, 0);
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final UserStorage userStorage;
+    private final ItemStorage itemStorage;
+    private final BookingStorage bookingStorage;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    private Long past;
+    private Long endsNow;
+    private Long startsNow;
+    private Long current;
+    private Long future;
+
+    @TestConfiguration
+    static class FixedClockConfig {
+        @Bean
+        @Primary
+        Clock fixedClock() {
+            return Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        bookerId = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build()).getId();
+        itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build()).getId();
+
+        Item item = itemStorage.findById(itemId).orElseThrow();
+        User booker = userStorage.findById(bookerId).orElseThrow();
+
+        past = save(item, booker, NOW.minusDays(3), NOW.minusDays(2));
+        endsNow = save(item, booker, NOW.minusHours(1), NOW);
+        startsNow = save(item, booker, NOW, NOW.plusHours(1));
+        current = save(item, booker, NOW.minusDays(1), NOW.plusDays(1));
+        future = save(item, booker, NOW.plusDays(1), NOW.plusDays(2));
+        // бронирования сохранены в обход сервиса, поэтому сводку предмета нужно пересчитать
+        itemBookingSummaryService.refresh(itemId);
+    }
+
+    @Test
+    void shouldClassifyBookerBookingsByPinnedClock() {
+        assertThat(ids(bookingService.getBookingsByUser(bookerId, "CURRENT", 0, 10)),
+                containsInAnyOrder(startsNow, current));
+        assertThat(ids(bookingService.getBookingsByUser(bookerId, "PAST", 0, 10)),
+                containsInAnyOrder(past, endsNow));
+        assertThat(ids(bookingService.getBookingsByUser(bookerId, "FUTURE", 0, 10)),
+                containsInAnyOrder(future));
+
+        String first = new BookingCursor(NOW.minusYears(10), 0L).encode();
+        String last = new BookingCursor(NOW.plusYears(10), Long.MAX_VALUE).encode();
+        assertThat(ids(bookingService.getBookingsByUserAfter(bookerId, "CURRENT", first, 10)),
+                containsInAnyOrder(startsNow, current));
+        assertThat(ids(bookingService.getBookingsByUserAfter(bookerId, "PAST", last, 10)),
+                containsInAnyOrder(past, endsNow));
+        assertThat(ids(bookingService.getBookingsByUserAfter(bookerId, "FUTURE", last, 10)),
+                containsInAnyOrder(future));
+    }
+
+    @Test
+    void shouldClassifyOwnerBookingsByPinnedClock() {
+        assertThat(ids(bookingService.getBookingsForOwnersItems(ownerId, "CURRENT", 0, 10)),
+                containsInAnyOrder(startsNow, current));
+        assertThat(ids(bookingService.getBookingsForOwnersItems(ownerId, "PAST", 0, 10)),
+                containsInAnyOrder(past, endsNow));
+        assertThat(ids(bookingService.getBookingsForOwnersItems(ownerId, "FUTURE", 0, 10)),
+                containsInAnyOrder(future));
+
+        String last = new BookingCursor(NOW.plusYears(10), Long.MAX_VALUE).encode();
+        assertThat(ids(bookingService.getBookingsForOwnersItemsAfter(ownerId, "CURRENT", last, 10)),
+                containsInAnyOrder(startsNow, current));
+        assertThat(ids(bookingService.getBookingsForOwnersItemsAfter(ownerId, "PAST", last, 10)),
+                containsInAnyOrder(past, endsNow));
+        assertThat(ids(bookingService.getBookingsForOwnersItemsAfter(ownerId, "FUTURE", last, 10)),
+                containsInAnyOrder(future));
+    }
+
+    @Test
+    void shouldPickLastAndNextBookingByPinnedClock() {
+        ItemDetailedDto card = itemService.getByUserIdAndItemId(ownerId, itemId);
+        ItemDetailedDto listed = itemService.getItemsUser(ownerId, 0, 10).get(0);
+
+        // последним считается начавшееся позже всех, в том числе начавшееся ровно сейчас
+        assertThat(card.getLastBooking().getId(), is(startsNow));
+        assertThat(card.getNextBooking().getId(), is(future));
+        assertThat(listed.getLastBooking().getId(), is(startsNow));
+        assertThat(listed.getNextBooking().getId(), is(future));
+    }
+
+    private Long save(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return bookingStorage.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build()).getId();
+    }
+
+    private static List<Long> ids(List<BookingForAnswerDto> bookings) {
+        return bookings.stream().map(BookingForAnswerDto::getId).collect(Collectors.toList());
+    }
+}
@@ -387,6 +387,21 @@ public class BookingStorageTest {
         assertThat(found.get(1), equalTo(booking1));
     }
 
+    @Test
+    public void shouldCopyItemOwnerToBooking() {
+        User owner = createUser(1L);
+        Item item = createItem(1L, owner);
+        User user = createUser(2L);
+
+        Booking booking = createBooking(1L, item, user);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(bookingStorage.findById(booking.getId()).orElseThrow().getOwnerId(), is(owner.getId()));
+        assertThat(bookingStorage.getAllBookingsForOwnersItems(owner.getId(), PageRequest.of(0, 10)).size(), is(1));
+        assertThat(bookingStorage.getAllBookingsForOwnersItems(user.getId(), PageRequest.of(0, 10)).size(), is(0));
+    }
+
     public User createUser(Long id) {
         User user = User.builder()
                 .id(id)
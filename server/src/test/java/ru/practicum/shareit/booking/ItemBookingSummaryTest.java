@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryDriftDto;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryScheduler;
+import ru.practicum.shareit.booking.service.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.storage.ItemBookingSummaryStorage;
+import ru.practicum.shareit.item.dto.ItemDetailedDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.time.MutableClock;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemBookingSummaryTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 15, 12, 0);
+
+    private final MutableClock clock;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemBookingSummaryScheduler itemBookingSummaryScheduler;
+    private final ItemBookingSummaryStorage itemBookingSummaryStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long soon;
+    private Long later;
+
+    @TestConfiguration
+    static class MutableClockConfig {
+        @Bean
+        @Primary
+        MutableClock mutableClock() {
+            return new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        bookerId = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build())
+                .getId();
+        itemId = itemService.create(ownerId, ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build()).getId();
+
+        soon = book(bookerId, NOW.plusHours(1), NOW.plusHours(2));
+        later = book(bookerId, NOW.plusDays(1), NOW.plusDays(2));
+    }
+
+    @Test
+    void shouldKeepSummaryOnCreate() {
+        ItemBookingSummary summary = itemBookingSummaryStorage.findWithBookingsByItemId(itemId).orElseThrow();
+        assertThat(summary.getLastBooking(), nullValue());
+        assertThat(summary.getNextBooking().getId(), is(soon));
+        assertThat(summary.getRollsAt(), is(NOW.plusHours(1)));
+
+        ItemDetailedDto card = itemService.getByUserIdAndItemId(ownerId, itemId);
+        assertThat(card.getLastBooking(), nullValue());
+        assertThat(card.getNextBooking().getId(), is(soon));
+    }
+
+    @Test
+    void shouldRollForwardWhenNextBookingStarts() {
+        clock.advance(Duration.ofMinutes(90));
+
+        // до планового сдвига карточка всё равно показывает актуальные бронирования
+        ItemDetailedDto card = itemService.getByUserIdAndItemId(ownerId, itemId);
+        assertThat(card.getLastBooking().getId(), is(soon));
+        assertThat(card.getNextBooking().getId(), is(later));
+        assertThat(itemBookingSummaryService.checkConsistency().getPendingRollForward(), is(1L));
+
+        itemBookingSummaryScheduler.rollForward();
+
+        ItemBookingSummary summary = itemBookingSummaryStorage.findWithBookingsByItemId(itemId).orElseThrow();
+        assertThat(summary.getLastBooking().getId(), is(soon));
+        assertThat(summary.getNextBooking().getId(), is(later));
+        assertThat(summary.getRollsAt(), is(NOW.plusDays(1)));
+        assertThat(itemBookingSummaryService.checkConsistency().getPendingRollForward(), is(0L));
+    }
+
+    @Test
+    void shouldRefreshSummaryOnResponse() {
+        bookingService.respondToBookingRequest(ownerId, soon, false);
+
+        ItemDetailedDto card = itemService.getByUserIdAndItemId(ownerId, itemId);
+        assertThat(card.getLastBooking(), nullValue());
+        assertThat(card.getNextBooking().getId(), is(later));
+    }
+
+    @Test
+    void shouldReportDrift() {
+        ItemBookingSummaryDriftDto clean = itemBookingSummaryService.checkConsistency();
+        assertThat(clean.getCheckedItems(), is(1L));
+        assertThat(clean.getDriftedItems(), is(0L));
+
+        jdbcTemplate.update("update item_booking_summary set next_booking_id = ? where item_id = ?", later, itemId);
+
+        ItemBookingSummaryDriftDto drifted = itemBookingSummaryService.checkConsistency();
+        assertThat(drifted.getDriftedItems(), is(1L));
+        assertThat(drifted.getDriftedItemIds(), is(List.of(itemId)));
+
+        itemBookingSummaryService.refresh(itemId);
+
+        assertThat(itemBookingSummaryService.checkConsistency().getDriftedItems(), is(0L));
+    }
+
+    @Test
+    void shouldRefreshSummaryWhenBookerIsDeleted() {
+        userService.deleteById(bookerId);
+
+        ItemBookingSummary summary = itemBookingSummaryStorage.findWithBookingsByItemId(itemId).orElseThrow();
+        assertThat(summary.getNextBooking(), nullValue());
+        assertThat(summary.getRollsAt(), nullValue());
+        assertThat(itemBookingSummaryService.checkConsistency().getDriftedItems(), is(0L));
+    }
+
+    private Long book(Long bookerId, LocalDateTime start, LocalDateTime end) {
+        return bookingService.create(bookerId, BookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(
+        properties = "db.name=test",
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EntityCacheTest {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+    private final ItemService itemService;
+
+    @Test
+    void shouldSkipUserCheckAndItemLoadOnRepeatedRequest() {
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        entityManagerFactory.getCache().evictAll();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        statistics.clear();
+        itemService.getByUserIdAndItemId(owner.getId(), item.getId());
+        long coldStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        itemService.getByUserIdAndItemId(owner.getId(), item.getId());
+        long warmStatements = statistics.getPrepareStatementCount();
+        long cacheHits = statistics.getSecondLevelCacheHitCount();
+
+        statistics.setStatisticsEnabled(false);
+
+        // повторный запрос не проверяет пользователя в базе и берёт предмет из кэша второго уровня
+        assertThat(warmStatements, is(coldStatements - 2));
+        assertThat(cacheHits, greaterThan(0L));
+    }
+
+    @Test
+    void shouldForgetDeletedUser() {
+        UserDto user = userService.create(UserDto.builder().name("User").email("user@mail.ru").build());
+        ItemDto itemDto = ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build();
+        itemService.getItemsUser(user.getId(), 0, 10);
+
+        userService.deleteById(user.getId());
+
+        assertThrows(NotFoundException.class, () -> itemService.getItemsUser(user.getId(), 0, 10));
+        assertThrows(NotFoundException.class, () -> itemService.create(user.getId(), itemDto));
+    }
+}
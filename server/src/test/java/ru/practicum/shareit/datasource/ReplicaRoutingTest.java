@@ -0,0 +1,143 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "db.name=test",
+        "shareit.datasource.replicas[0].url=jdbc:h2:mem:shareit-replica-${random.uuid};DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replicas[0].username=test",
+        "shareit.datasource.replicas[0].password=test",
+        "shareit.datasource.read-your-writes-window=1m"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ReplicaRoutingTest {
+
+    private final MockMvc mvc;
+    private final ReplicaRoutingDataSource router;
+    private final UserService userService;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        // репликация в тестах не настроена, поэтому вторая база получает ту же схему, а данные — вручную
+        DataSource replicaDataSource = router.getReplicas().get(0);
+        Flyway.configure()
+                .dataSource(replicaDataSource)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        primary = new JdbcTemplate(router.getPrimary());
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @Test
+    void shouldReadFromReplicaAndWriteToPrimary() {
+        userService.create(UserDto.builder().name("Primary").email("primary@mail.ru").build());
+        replica.update("INSERT INTO users (id, name, email) VALUES (100, 'Replica', 'replica@mail.ru')");
+
+        List<String> emails = userService.getUsers().stream().map(UserDto::getEmail).collect(Collectors.toList());
+
+        assertThat(emails, contains("replica@mail.ru"));
+        assertThat(primary.queryForList("SELECT email FROM users", String.class), contains("primary@mail.ru"));
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary() throws Exception {
+        Long writerId = userService.create(UserDto.builder().name("Writer").email("writer@mail.ru").build())
+                .getId();
+        Long readerId = userService.create(UserDto.builder().name("Reader").email("reader@mail.ru").build())
+                .getId();
+
+        mvc.perform(post("/items")
+                        .header("X-Sharer-User-Id", writerId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Дрель\",\"description\":\"Аккумуляторная дрель\",\"available\":true}"))
+                .andExpect(status().isOk());
+
+        // автор записи видит её сразу, остальные — когда изменение дойдёт до реплики
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", writerId)
+                        .param("text", "дрель"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", readerId)
+                        .param("text", "дрель"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaIsDown() {
+        userService.create(UserDto.builder().name("Primary").email("primary@mail.ru").build());
+        ((HikariDataSource) router.getReplicas().get(0)).close();
+
+        assertThat(userService.getUsers().size(), is(1));
+        assertThat(userService.getUsers().get(0).getEmail(), is("primary@mail.ru"));
+    }
+
+    @Test
+    void shouldPinReadsToOneReplicaWithinRequest() throws Exception {
+        DataSource first = mock(DataSource.class);
+        DataSource second = mock(DataSource.class);
+        when(first.getConnection()).thenReturn(mock(Connection.class));
+        when(second.getConnection()).thenReturn(mock(Connection.class));
+        ReplicaRoutingDataSource pinned = new ReplicaRoutingDataSource(mock(DataSource.class),
+                List.of(first, second), new ReadYourWrites(Duration.ofMinutes(1)), Duration.ofHours(1));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            // ETag и тело ответа читаются разными транзакциями, но должны прийти из одного источника
+            pinned.beginRequest();
+            pinned.getConnection();
+            pinned.getConnection();
+            pinned.getConnection();
+            pinned.endRequest();
+
+            pinned.getConnection();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            pinned.close();
+        }
+
+        verify(first, times(3)).getConnection();
+        verify(second, times(1)).getConnection();
+    }
+}
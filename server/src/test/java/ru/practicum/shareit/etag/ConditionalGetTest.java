@@ -0,0 +1,158 @@
+package ru.practicum.shareit.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ConditionalGetTest {
+
+    private final MockMvc mvc;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldAnswerNotModifiedWithoutLoadingEntities() throws Exception {
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        Long bookingId = bookingService.create(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+
+        String itemETag = getETag("/items/" + item.getId(), owner.getId());
+        String bookingETag = getETag("/bookings/" + bookingId, booker.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, itemETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, itemETag))
+                .andExpect(content().string(""));
+        mvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, bookingETag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        long entityLoads = statistics.getEntityLoadCount();
+        long collectionLoads = statistics.getCollectionLoadCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(entityLoads, is(0L));
+        assertThat(collectionLoads, is(0L));
+    }
+
+    @Test
+    void shouldChangeETagWhenEntityChanges() throws Exception {
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build());
+        UserDto booker = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        Long bookingId = bookingService.create(booker.getId(), BookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build()).getId();
+
+        String userETag = getETag("/users/" + owner.getId(), null);
+        String itemETag = getETag("/items/" + item.getId(), owner.getId());
+        String bookingETag = getETag("/bookings/" + bookingId, booker.getId());
+
+        userService.update(owner.getId(), UserDto.builder().name("New owner").build());
+        bookingService.respondToBookingRequest(owner.getId(), bookingId, true);
+
+        mvc.perform(get("/users/{userId}", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, userETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(userETag)));
+        // подтверждение бронирования не меняет саму вещь, но владелец видит бронирование в ответе
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, itemETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(itemETag)));
+        mvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, bookingETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(bookingETag)));
+    }
+
+    @Test
+    void shouldNotPairFreshETagWithCachedBody() throws Exception {
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .build());
+        String itemETag = getETag("/items/" + item.getId(), owner.getId());
+
+        // так предмет меняет другой экземпляр сервера: кэш второго уровня здесь об этом не знает
+        jdbcTemplate.update("update items set name = 'Перфоратор', version = version + 1 where id = ?",
+                item.getId());
+
+        mvc.perform(get("/items/{itemId}", item.getId())
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, itemETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(itemETag)))
+                .andExpect(jsonPath("$.name").value("Перфоратор"));
+    }
+
+    private String getETag(String path, Long userId) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return mvc.perform(get(path).headers(headers))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,197 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemImporter;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"db.name=test", "shareit.item.import.chunk-size=" + ItemImportTest.CHUNK_SIZE})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemImportTest {
+    private static final int ITEMS = 120;
+    static final int CHUNK_SIZE = 50;
+
+    private final MockMvc mvc;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemImporter itemImporter;
+    private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final ItemStorage itemStorage;
+
+    @Test
+    void shouldImportJsonArrayInBatches() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        Long requesterId = userService.create(UserDto.builder()
+                .name("Requester")
+                .email("requester@mail.ru")
+                .build()).getId();
+        Long requestId = itemRequestService.create(requesterId, ItemRequestDto.builder()
+                .description("Нужна дрель")
+                .build()).getId();
+
+        List<ItemDto> items = createItemDtoList(ITEMS);
+        items.get(0).setRequestId(requestId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(ITEMS));
+        long statements = statistics.getPrepareStatementCount();
+
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(itemStorage.count(), is((long) ITEMS));
+        assertThat(itemStorage.findAllByRequestId(requestId).size(), is(1));
+        // вставки и выборки идентификаторов идут пачками, а не по одной на предмет
+        assertThat(statements, lessThan((long) ITEMS / 5));
+    }
+
+    @Test
+    void shouldNotKeepImportedItemsInPersistenceContext() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        byte[] body = objectMapper.writeValueAsBytes(createItemDtoList(ITEMS));
+
+        // внешняя транзакция держит один контекст на всю загрузку, как open-in-view на время HTTP-запроса
+        int managedEntities = transactionTemplate.execute(status -> {
+            try {
+                itemImporter.importItems(ownerId, new ByteArrayInputStream(body));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+
+        assertThat(itemStorage.count(), is((long) ITEMS));
+        assertThat(managedEntities, lessThanOrEqualTo(CHUNK_SIZE));
+    }
+
+    @Test
+    void shouldImportNdjson() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+
+        StringBuilder body = new StringBuilder();
+        for (ItemDto itemDto : createItemDtoList(ITEMS)) {
+            body.append(objectMapper.writeValueAsString(itemDto)).append('\n');
+        }
+
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(ITEMS));
+
+        assertThat(itemStorage.count(), is((long) ITEMS));
+    }
+
+    @Test
+    void shouldKeepSavedChunksWhenItemIsMalformed() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+
+        StringBuilder body = new StringBuilder();
+        for (ItemDto itemDto : createItemDtoList(60)) {
+            body.append(objectMapper.writeValueAsString(itemDto)).append('\n');
+        }
+        body.append("{\"name\": \n");
+
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isBadRequest());
+
+        assertThat(itemStorage.count(), is(50L));
+    }
+
+    @Test
+    void shouldNotImportForUnknownUser() throws Exception {
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 99L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createItemDtoList(3))))
+                .andExpect(status().isNotFound());
+
+        assertThat(itemStorage.count(), is(0L));
+    }
+
+    @Test
+    void shouldExportImportedItems() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createItemDtoList(ITEMS))))
+                .andExpect(status().isOk());
+
+        String[] lines = mvc.perform(get("/items/export")
+                        .header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines.length, is(ITEMS));
+        ItemDto first = objectMapper.readValue(lines[0], ItemDto.class);
+        ItemDto last = objectMapper.readValue(lines[ITEMS - 1], ItemDto.class);
+        assertThat(first.getName(), is("Item1"));
+        assertThat(last.getName(), is("Item" + ITEMS));
+        assertThat(last.getAvailable(), is(true));
+    }
+
+    private List<ItemDto> createItemDtoList(int count) {
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            items.add(ItemDto.builder()
+                    .name("Item" + i)
+                    .description("Description for Item" + i)
+                    .available(i % 2 == 0)
+                    .build());
+        }
+        return items;
+    }
+}
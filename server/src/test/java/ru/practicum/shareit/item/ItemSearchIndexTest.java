@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemSearchMode;
+import ru.practicum.shareit.item.storage.ItemSearchIndex;
+import ru.practicum.shareit.item.storage.ItemStorage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemSearchIndexTest {
+
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ItemStorage itemStorage = mock(ItemStorage.class);
+        when(itemStorage.findAvailableForIndexing(anyLong(), any()))
+                .thenReturn(List.of(createItem(1L, "Дрель", "Простая дрель", true)))
+                .thenReturn(List.of());
+
+        index = new ItemSearchIndex(itemStorage, ItemSearchMode.MEMORY);
+        index.rebuild();
+    }
+
+    @Test
+    void shouldFindRebuiltItemsByPrefix() {
+        assertThat(index.isReady(), is(true));
+        assertThat(ids(index.search("дРел", 0, 10)), contains(1L));
+        assertThat(ids(index.search("отвёртка", 0, 10)), empty());
+    }
+
+    @Test
+    void shouldKeepIndexInSyncWithSavedItems() {
+        index.onItemSaved(createItemDto(2L, "Аккумуляторная дрель", "Дрель с аккумулятором", true));
+        index.onItemSaved(createItemDto(3L, "Отвёртка", "Аккумуляторная отвёртка", false));
+
+        assertThat(ids(index.search("дрель", 0, 10)), contains(1L, 2L));
+        assertThat(ids(index.search("аккум дрель", 0, 10)), contains(2L));
+        assertThat(ids(index.search("отвёртка", 0, 10)), empty());
+
+        index.onItemSaved(createItemDto(2L, "Перфоратор", "Мощный перфоратор", true));
+        index.onItemSaved(createItemDto(3L, "Отвёртка", "Аккумуляторная отвёртка", true));
+
+        assertThat(ids(index.search("дрель", 0, 10)), contains(1L));
+        assertThat(ids(index.search("аккум", 0, 10)), contains(3L));
+
+        index.onItemSaved(createItemDto(1L, "Дрель", "Простая дрель", false));
+
+        assertThat(ids(index.search("дрель", 0, 10)), empty());
+    }
+
+    @Test
+    void shouldPageSearchResults() {
+        for (long id = 2; id <= 5; id++) {
+            index.onItemSaved(createItemDto(id, "Дрель" + id, "Дрель", true));
+        }
+
+        assertThat(ids(index.search("дрель", 0, 2)), contains(1L, 2L));
+        assertThat(ids(index.search("дрель", 2, 2)), contains(3L, 4L));
+        assertThat(ids(index.search("дрель", 4, 2)), contains(5L));
+        assertThat(ids(index.search("дрель", 5, 2)), empty());
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+
+    private static Item createItem(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+
+    private static ItemDto createItemDto(Long id, String name, String description, boolean available) {
+        return ItemDto.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,12 +11,14 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Status;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDetailedDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -23,6 +27,7 @@ import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.KnownUserIds;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -48,6 +53,7 @@ public class ItemServiceImplTest {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final KnownUserIds knownUserIds;
 
     @Test
     void shouldCreateItem() {
@@ -290,6 +296,69 @@ public class ItemServiceImplTest {
                 "Пользователь с id 3 не найден");
     }
 
+    @Test
+    void shouldGetItemsUserWithConstantNumberOfStatements() {
+        User owner = createUser(1);
+        User booker = createUser(2);
+        LocalDateTime timeNow = LocalDateTime.now();
+
+        for (long i = 1; i <= 12; i++) {
+            Item item = createItem(i, owner.getId(), null);
+
+            em.persist(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .start(timeNow.minusDays(2))
+                    .end(timeNow.minusDays(1))
+                    .build());
+
+            em.persist(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .status(Status.WAITING)
+                    .start(timeNow.plusDays(1))
+                    .end(timeNow.plusDays(2))
+                    .build());
+
+            em.persist(Comment.builder()
+                    .text("Comment for Item" + i)
+                    .item(item)
+                    .author(booker)
+                    .created(timeNow)
+                    .build());
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        // проверка пользователя запоминается после первого вызова, поэтому её прогревают до замеров
+        knownUserIds.exists(owner.getId());
+
+        statistics.clear();
+        List<ItemDetailedDto> smallPage = itemService.getItemsUser(owner.getId(), 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        em.clear();
+
+        statistics.clear();
+        List<ItemDetailedDto> largePage = itemService.getItemsUser(owner.getId(), 0, 12);
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(smallPage.size(), is(2));
+        assertThat(largePage.size(), is(12));
+        for (ItemDetailedDto itemDetailedDto : largePage) {
+            assertThat(itemDetailedDto.getLastBooking().getStatus(), equalTo(Status.APPROVED));
+            assertThat(itemDetailedDto.getNextBooking().getStatus(), equalTo(Status.WAITING));
+            assertThat(itemDetailedDto.getComments().size(), is(1));
+            assertThat(itemDetailedDto.getComments().get(0).getAuthorName(), equalTo(booker.getName()));
+        }
+        assertThat(largePageStatements, equalTo(smallPageStatements));
+    }
+
     @Test
     void shouldGetItemOnRequest() {
         User user1 = createUser(1);
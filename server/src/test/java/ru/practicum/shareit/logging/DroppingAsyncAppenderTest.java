@@ -0,0 +1,69 @@
+package ru.practicum.shareit.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DroppingAsyncAppenderTest {
+
+    @Test
+    void shouldDropAndCountEventsWhenQueueIsFull() throws InterruptedException {
+        LoggerContext context = new LoggerContext();
+        Logger logger = context.getLogger("test");
+        BlockingAppender slowConsole = new BlockingAppender();
+        slowConsole.setContext(context);
+        slowConsole.start();
+
+        DroppingAsyncAppender appender = new DroppingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(1);
+        appender.addAppender(slowConsole);
+        appender.start();
+
+        long droppedBefore = DroppingAsyncAppender.getDroppedCount();
+        try {
+            appender.doAppend(event(logger, "first"));
+            // первое событие уже у медленного appender, второе занимает единственное место в очереди
+            assertThat(slowConsole.entered.await(5, TimeUnit.SECONDS), is(true));
+            appender.doAppend(event(logger, "second"));
+
+            for (int i = 0; i < 3; i++) {
+                appender.doAppend(event(logger, "dropped" + i));
+            }
+
+            assertThat(DroppingAsyncAppender.getDroppedCount() - droppedBefore, is(3L));
+        } finally {
+            slowConsole.release.countDown();
+            appender.stop();
+        }
+    }
+
+    private static ILoggingEvent event(Logger logger, String message) {
+        return new LoggingEvent(Logger.class.getName(), logger, Level.INFO, message, null, null);
+    }
+
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.logging;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+
+@SpringBootTest(
+        properties = {"db.name=test", "shareit.logging.slow-query.threshold=0ms"},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@ExtendWith(OutputCaptureExtension.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SlowQueryLogTest {
+
+    private final DataSource dataSource;
+    private final UserService userService;
+
+    @Test
+    void shouldLogSlowStatementWithBindValues(CapturedOutput output) {
+        userService.create(UserDto.builder().name("Slow").email("slow@mail.ru").build());
+
+        // при нулевом пороге медленным считается любой запрос
+        assertThat(dataSource, instanceOf(SlowQueryDataSource.class));
+        assertThat(output.getOut().lines().collect(Collectors.toList()), hasItem(allOf(
+                containsString("Медленный SQL-запрос"),
+                containsString("insert into users"),
+                containsString("slow@mail.ru"))));
+    }
+}
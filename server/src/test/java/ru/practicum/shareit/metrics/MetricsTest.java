@@ -0,0 +1,71 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class MetricsTest {
+
+    private final MeterRegistry registry;
+    private final MockMvc mvc;
+    private final UserService userService;
+    private final BookingService bookingService;
+
+    @Test
+    void shouldTimeServiceAndStorageCalls() {
+        UserDto user = userService.create(UserDto.builder().name("User1").email("User1@mail.ru").build());
+
+        bookingService.getBookingsByUser(user.getId(), "CURRENT", 0, 10);
+        bookingService.getBookingsByUser(user.getId(), "<script>", 0, 10);
+
+        assertThat(registry.get("shareit.service")
+                .tag("service", "BookingServiceImpl")
+                .tag("method", "getBookingsByUser")
+                .tag("state", "CURRENT")
+                .timer().count(), is(1L));
+        assertThat(registry.get("shareit.service")
+                .tag("method", "getBookingsByUser")
+                .tag("state", "OTHER")
+                .timer().count(), is(1L));
+        assertThat(registry.get("shareit.storage")
+                .tag("storage", "BookingStorage")
+                .tag("method", "findCurrentBookingsByBookerId")
+                .timer().count(), is(1L));
+    }
+
+    @Test
+    void shouldRecordSqlStatementsPerRequest() throws Exception {
+        UserDto user = userService.create(UserDto.builder().name("User1").email("User1@mail.ru").build());
+
+        mvc.perform(get("/users/{userId}", user.getId()))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = registry.get("shareit.http.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/users/{userId}")
+                .summary();
+        assertThat(statements.count(), is(1L));
+        assertThat(statements.totalAmount(), greaterThanOrEqualTo(1.0));
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.util.NestedServletException;
+import ru.practicum.shareit.booking.Status;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingStorage;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "db.name=test")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SqlBudgetTest {
+    private static final int ITEMS = 30;
+
+    private final MockMvc mvc;
+    private final MeterRegistry registry;
+    private final SqlBudgetProperties budgets;
+    private final SqlStatsEndpoint sqlStatsEndpoint;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserStorage userStorage;
+    private final ItemStorage itemStorage;
+    private final BookingStorage bookingStorage;
+
+    @Test
+    void shouldListOwnerItemsWithinBudget() throws Exception {
+        Long ownerId = userService.create(UserDto.builder().name("Owner").email("owner@mail.ru").build()).getId();
+        Long bookerId = userService.create(UserDto.builder().name("Booker").email("booker@mail.ru").build()).getId();
+        User booker = userStorage.findById(bookerId).orElseThrow();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 1; i <= ITEMS; i++) {
+            Long itemId = itemService.create(ownerId, ItemDto.builder()
+                    .name("Item" + i)
+                    .description("Description" + i)
+                    .available(true)
+                    .build()).getId();
+            Item item = itemStorage.findById(itemId).orElseThrow();
+            bookings.add(booking(item, booker, now.minusDays(2), now.minusDays(1)));
+            bookings.add(booking(item, booker, now.plusDays(1), now.plusDays(2)));
+        }
+        bookingStorage.saveAll(bookings);
+
+        // в строгом режиме лишний запрос на каждый предмет превысил бы бюджет и оборвал запрос
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("from", "0")
+                        .param("size", String.valueOf(ITEMS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ITEMS));
+
+        HandlerSqlStats stats = sqlStatsEndpoint.sqlStats().get("ItemController.getItemsUser");
+        assertThat(stats.getRequests(), is(1L));
+        assertThat(stats.getMaxStatements(), lessThanOrEqualTo((long) budgets.getDefaultStatements()));
+        assertThat(stats.getDbTimeMillis(), greaterThan(0.0));
+        assertThat(stats.getBudgetExceeded(), is(0L));
+    }
+
+    @Test
+    void shouldFailRequestOverBudgetInStrictMode() {
+        userService.create(UserDto.builder().name("User").email("user@mail.ru").build());
+        budgets.getEndpoints().put("UserController.getUsers", 0);
+
+        NestedServletException exception = assertThrows(NestedServletException.class,
+                () -> mvc.perform(get("/users")));
+
+        assertThat(NestedExceptionUtils.getRootCause(exception), instanceOf(SqlBudgetExceededException.class));
+        // после запроса лимит снят, и обращения вне HTTP выполняются как обычно
+        assertThat(userService.getUsers().size(), is(1));
+    }
+
+    @Test
+    void shouldWarnAndCountWhenBudgetExceeded() throws Exception {
+        userService.create(UserDto.builder().name("User").email("user@mail.ru").build());
+        budgets.setStrict(false);
+        budgets.getEndpoints().put("UserController.getUsers", 0);
+
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        assertThat(registry.get("shareit.http.sql.budget.exceeded")
+                .tag("handler", "UserController.getUsers")
+                .tag("uri", "/users")
+                .counter().count(), is(1.0));
+        HandlerSqlStats stats = sqlStatsEndpoint.sqlStats().get("UserController.getUsers");
+        assertThat(stats.getBudget(), is(0));
+        assertThat(stats.getBudgetExceeded(), is(1L));
+        assertThat(stats.getStatements(), greaterThan(0L));
+    }
+
+    private static Booking booking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(Status.APPROVED)
+                .build();
+    }
+}
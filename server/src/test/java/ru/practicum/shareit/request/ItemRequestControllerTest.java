@@ -93,7 +93,7 @@ public class ItemRequestControllerTest {
         list.add(itemRequestWithAnswersDto2);
         list.add(itemRequestWithAnswersDto1);
 
-        when(itemRequestService.getRequestOwner(anyLong())).thenReturn(list);
+        when(itemRequestService.getRequestOwner(anyLong(), anyInt(), anyInt())).thenReturn(list);
 
         mvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", 1L))
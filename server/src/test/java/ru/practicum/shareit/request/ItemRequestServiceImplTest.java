@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -19,6 +21,7 @@ import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.KnownUserIds;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -28,6 +31,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -43,6 +47,7 @@ public class ItemRequestServiceImplTest {
     private final ItemRequestService itemRequestService;
     private final UserService userService;
     private final ItemService itemService;
+    private final KnownUserIds knownUserIds;
 
     @Test
     void shouldCreateItemRequest() {
@@ -66,7 +71,7 @@ public class ItemRequestServiceImplTest {
         assertThrows(NotFoundException.class, () -> itemRequestService.create(2L, itemRequestDto),
                 "Пользователь с id 2 не найден");
 
-        assertThrows(NullPointerException.class, () -> ItemRequestMapper.toItemRequest(null, null));
+        assertThrows(NullPointerException.class, () -> ItemRequestMapper.toItemRequest(null, null, null));
     }
 
     @Test
@@ -97,7 +102,7 @@ public class ItemRequestServiceImplTest {
 
         createItemRequest(3L, user2.getId());
 
-        List<ItemRequestWithAnswersDto> reqestList = itemRequestService.getRequestOwner(user1.getId());
+        List<ItemRequestWithAnswersDto> reqestList = itemRequestService.getRequestOwner(user1.getId(), 0, 10);
         List<ItemRequestWithAnswersDto> checkList = new ArrayList<>();
         checkList.add(itemRequestWithAnswersDto2);
         checkList.add(itemRequestWithAnswersDto1);
@@ -105,10 +110,85 @@ public class ItemRequestServiceImplTest {
         assertThat(reqestList, notNullValue());
         assertThat(reqestList, equalTo(checkList));
 
-        assertThrows(NotFoundException.class, () -> itemRequestService.getRequestOwner(3L),
+        assertThrows(NotFoundException.class, () -> itemRequestService.getRequestOwner(3L, 0, 10),
                 "Пользователь с id 3 не найден");
     }
 
+    @Test
+    void shouldGetRequestOwnerWithPageable() {
+        User user1 = createUser(1);
+        User user2 = createUser(2);
+
+        ItemRequest itemRequest1 = createItemRequest(1L, user1.getId());
+        ItemRequest itemRequest2 = createItemRequest(2L, user1.getId());
+        ItemRequest itemRequest3 = createItemRequest(3L, user1.getId());
+        Item item = createItem(1L, user2.getId(), itemRequest2.getId());
+
+        List<ItemRequestWithAnswersDto> firstPage = itemRequestService.getRequestOwner(user1.getId(), 0, 2);
+        List<ItemRequestWithAnswersDto> secondPage = itemRequestService.getRequestOwner(user1.getId(), 2, 2);
+
+        List<ItemRequestWithAnswersDto> checkFirstPage = new ArrayList<>();
+        checkFirstPage.add(ItemRequestMapper.toItemRequestWithAnswersDto(itemRequest3, new ArrayList<>()));
+        checkFirstPage.add(ItemRequestMapper.toItemRequestWithAnswersDto(itemRequest2,
+                List.of(ItemMapper.toItemDto(item))));
+
+        assertThat(firstPage, equalTo(checkFirstPage));
+        assertThat(secondPage, equalTo(List.of(
+                ItemRequestMapper.toItemRequestWithAnswersDto(itemRequest1, new ArrayList<>()))));
+    }
+
+    @Test
+    void shouldLoadAnswersWithConstantNumberOfStatements() {
+        User requester = createUser(1);
+        User owner = createUser(2);
+        User reader = createUser(3);
+
+        for (long i = 1; i <= 10; i++) {
+            ItemRequest itemRequest = createItemRequest(i, requester.getId());
+            createItem(i * 2 - 1, owner.getId(), itemRequest.getId());
+            createItem(i * 2, owner.getId(), itemRequest.getId());
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        // проверка пользователя запоминается после первого вызова, поэтому её прогревают до замеров
+        knownUserIds.exists(requester.getId());
+        knownUserIds.exists(reader.getId());
+
+        statistics.clear();
+        List<ItemRequestWithAnswersDto> smallOwnerPage = itemRequestService.getRequestOwner(requester.getId(), 0, 2);
+        long smallOwnerPageStatements = statistics.getPrepareStatementCount();
+        em.clear();
+
+        statistics.clear();
+        List<ItemRequestWithAnswersDto> largeOwnerPage = itemRequestService.getRequestOwner(requester.getId(), 0, 10);
+        long largeOwnerPageStatements = statistics.getPrepareStatementCount();
+        em.clear();
+
+        statistics.clear();
+        List<ItemRequestWithAnswersDto> smallPage = itemRequestService.get(reader.getId(), 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        em.clear();
+
+        statistics.clear();
+        List<ItemRequestWithAnswersDto> largePage = itemRequestService.get(reader.getId(), 0, 10);
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(smallOwnerPage.size(), is(2));
+        assertThat(largeOwnerPage.size(), is(10));
+        assertThat(smallPage.size(), is(2));
+        assertThat(largePage.size(), is(10));
+        for (ItemRequestWithAnswersDto itemRequestWithAnswersDto : largePage) {
+            assertThat(itemRequestWithAnswersDto.getItems().size(), is(2));
+        }
+        assertThat(largeOwnerPageStatements, equalTo(smallOwnerPageStatements));
+        assertThat(largePageStatements, equalTo(smallPageStatements));
+    }
+
     @Test
     void shouldGetAllRequestWithPageable() {
         User user1 = createUser(1);
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.time;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CoarseClockTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 15, 12, 0);
+
+    @Test
+    void shouldKeepTimeWithinResolution() {
+        MutableClock clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        CoarseClock coarseClock = new CoarseClock(clock, Duration.ofSeconds(1));
+
+        assertThat(coarseClock.now(), is(NOW));
+
+        clock.advance(Duration.ofMillis(999));
+        assertThat(coarseClock.now(), is(NOW));
+
+        clock.advance(Duration.ofMillis(1));
+        assertThat(coarseClock.now(), is(NOW.plusSeconds(1)));
+    }
+
+    @Test
+    void shouldRefreshWhenClockGoesBack() {
+        MutableClock clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        CoarseClock coarseClock = new CoarseClock(clock, Duration.ofSeconds(1));
+        coarseClock.now();
+
+        clock.advance(Duration.ofMillis(-500));
+
+        assertThat(coarseClock.now(), is(NOW.minusNanos(500_000_000)));
+    }
+
+    @Test
+    void shouldFollowClockWithoutResolution() {
+        MutableClock clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        CoarseClock coarseClock = new CoarseClock(clock, Duration.ZERO);
+        coarseClock.now();
+
+        clock.advance(Duration.ofMillis(1));
+
+        assertThat(coarseClock.now(), is(NOW.plusNanos(1_000_000)));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.time;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Часы для тестов, которые идут только по команде. Копии из {@link #withZone} разделяют с исходными часами
+ * текущий момент и сдвигаются вместе с ними.
+ */
+public class MutableClock extends Clock {
+    private final AtomicReference<Instant> instant;
+    private final ZoneId zone;
+
+    public MutableClock(Instant instant) {
+        this(new AtomicReference<>(instant), ZoneOffset.UTC);
+    }
+
+    private MutableClock(AtomicReference<Instant> instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        instant.updateAndGet(current -> current.plus(duration));
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new MutableClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant.get();
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
@@ -87,7 +88,7 @@ public class UserControllerTest {
     void shouldGetUsers() throws Exception {
         createUser(1);
 
-        User newUser1 = User.builder()
+        UserDto newUser1 = UserDto.builder()
                 .id(1L)
                 .name("User1")
                 .email("User1@email.ru")
@@ -95,7 +96,7 @@ public class UserControllerTest {
 
         createUser(2);
 
-        User newUser2 = User.builder()
+        UserDto newUser2 = UserDto.builder()
                 .id(2L)
                 .name("User2")
                 .email("User2@email.ru")